@@ -11,6 +11,64 @@ import areas.*;
 public abstract class Animal
 {
 
+	// the species IDs, a small number for every species
+	public static final int LION = 0;
+	public static final int ZEBRA = 1;
+	public static final int GAZELLE = 2;
+	public static final int SHARK = 3;
+	public static final int STARFISH = 4;
+	public static final int SEAL = 5;
+	public static final int PARROT = 6;
+	public static final int BUZZARD = 7;
+	public static final int NR_SPECIES = 8;
+	// the species ID of animals whose class is none of the species above (nor a subclass of one)
+	public static final int UNKNOWN_SPECIES = -1;
+
+	// the class of every species, indexed by species ID
+	private static final Class<?>[] SPECIES_CLASSES = {
+			Lion.class, Zebra.class, Gazelle.class, Shark.class, Starfish.class, Seal.class, Parrot.class, Buzzard.class
+	};
+
+	/** the species ID of every animal class, found once per class by walking up to the first species class,
+	 * so a subclass of Lion is a lion, just as it is an instanceof Lion
+	 */
+	private static final ClassValue<Integer> SPECIES_IDS = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			for (Class<?> animalClass = type; animalClass != null; animalClass = animalClass.getSuperclass()) {
+				for (int speciesId = 0; speciesId < NR_SPECIES; speciesId++) {
+					if (animalClass == SPECIES_CLASSES[speciesId])
+					{
+						return speciesId;
+					}
+				}
+			}
+			return UNKNOWN_SPECIES;
+		}
+	};
+
+	/** for every species ID, a bitmask with a bit set (1 << species ID) for every species it can live with
+	 * so checking whether two animals can live together is a single AND
+	 */
+	private static final int[] COMPATIBLE_SPECIES = {
+			1 << LION,
+			1 << ZEBRA | 1 << GAZELLE,
+			1 << ZEBRA | 1 << GAZELLE,
+			1 << SHARK | 1 << STARFISH,
+			1 << SHARK | 1 << STARFISH | 1 << SEAL,
+			1 << STARFISH | 1 << SEAL,
+			1 << PARROT,
+			1 << BUZZARD
+	};
+
+	// for every species ID, the kind of habitat it lives in (see Areas)
+	private static final int[] HABITAT_KIND = {
+			Areas.ENCLOSURE, Areas.ENCLOSURE, Areas.ENCLOSURE,
+			Areas.AQUARIUM, Areas.AQUARIUM, Areas.AQUARIUM,
+			Areas.CAGE, Areas.CAGE
+	};
+
+
 	/**
 	 * @return Returns this animal's given name.
 	 */
@@ -23,24 +81,49 @@ public abstract class Animal
 	 */
 	public abstract boolean isCompatibleWith(Animal animal);
 
+	/**
+	 * the animals of this package return their own species ID, any other class is looked up once
+	 * @return Returns the species ID of this animal (LION, ZEBRA, ...), or UNKNOWN_SPECIES.
+	 */
+	public int getSpeciesId() {
+		return SPECIES_IDS.get(getClass());
+	}
+
+	// returns the bit of this animal's species, used in the compatibility bitmasks, no bit for an unknown species
+	public int getSpeciesBit() {
+		int speciesId = getSpeciesId();
+		return speciesId == UNKNOWN_SPECIES ? 0 : 1 << speciesId;
+	}
+
+	/**
+	 * @param speciesId the species ID of an animal
+	 * @return the kind of habitat (see Areas) animals of that species live in
+	 */
+	public static int getHabitatKind(int speciesId) {
+		return HABITAT_KIND[speciesId];
+	}
+
+	// returns the bitmask of the species this animal can live with, none for an unknown species,
+	// whose animals are asked with isCompatibleWith instead
+	public int getCompatibleSpecies() {
+		int speciesId = getSpeciesId();
+		return speciesId == UNKNOWN_SPECIES ? 0 : COMPATIBLE_SPECIES[speciesId];
+	}
+
+	/**
+	 * @param speciesId the species ID of an animal
+	 * @return the bitmask of the species animals of that species can live with
+	 */
+	public static int getCompatibleSpecies(int speciesId) {
+		return COMPATIBLE_SPECIES[speciesId];
+	}
+
 	// this method checks the area is the correct habitat for the animal
+	// an animal of an unknown species has no correct habitat, unless its class overrides this method
 	public boolean isCorrectHabitat(IArea area, Animal animal) {
-		/** only checks the animals that belong to a certain habitat
-		 *  e.g for Enclosures, only checks if the animal is a lion, zebra or gazelle to return true
-		 */
-		if ( (animal instanceof Zebra || animal instanceof Lion || animal instanceof Gazelle) && area instanceof Enclosure)
-		{
-			return true;
-		}
-		else if ((animal instanceof Shark || animal instanceof Starfish || animal instanceof Seal) && area instanceof Aquarium)
-		{
-			return true;
-		}
-		else if ((animal instanceof Parrot || animal instanceof Buzzard) && area instanceof Cage)
-		{
-			return true;
-		}
-		return false;
+		// every species lives in one kind of habitat, so this is a single lookup
+		int speciesId = animal.getSpeciesId();
+		return speciesId != UNKNOWN_SPECIES && area instanceof Areas && ((Areas) area).getAreaKind() == HABITAT_KIND[speciesId];
 	}
 
 	/**
@@ -51,22 +134,8 @@ public abstract class Animal
 	 * @return true if the animal is compatible with all inhabitants
 	 */
 	public boolean areAnimalsCompatible(IArea area, Animal animal) {
-		/** first checks the habitat type, then calls the appropriate method
-		 * in the respective class to check for animal compatibility
-		 */
-		if (area instanceof Aquarium && ((Aquarium) area).areAquariumAnimalsCompatible(animal))
-		{
-			return true;
-		}
-		else if (area instanceof Enclosure && ((Enclosure) area).areEnclosureAnimalsCompatible(animal))
-		{
-			return true;
-		}
-		else if (area instanceof Cage && ((Cage) area).areCageAnimalsCompatible(animal))
-		{
-			return true;
-		}
-		return false;
+		// every habitat keeps the species its inhabitants can live with, so there is no need to check the habitat type
+		return area instanceof Habitats && ((Habitats) area).isCompatibleWithInhabitants(animal);
 	}
 
 }
@@ -16,12 +16,13 @@ public class Buzzard extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks the given animal is a buzzard
+        // the given animal must be a buzzard
         // since buzzards are only compatible with themselves
-        if (animal instanceof Buzzard)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return BUZZARD;
     }
 }
@@ -15,12 +15,13 @@ public class Gazelle extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks given animal is a zebra or a gazelle
+        // the given animal must be a zebra or a gazelle
         // gazelles are compatible with themselves and zebras
-        if (animal instanceof Zebra || animal instanceof Gazelle)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return GAZELLE;
     }
 }
@@ -15,12 +15,13 @@ public class Lion extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks given animal is a lion
+        // the given animal must be a lion
         // since lions are only compatible with themselves
-        if (animal instanceof Lion)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return LION;
     }
 }
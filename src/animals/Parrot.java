@@ -15,12 +15,13 @@ public class Parrot extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks given animal is a parrot
+        // the given animal must be a parrot
         // since parrots are only compatible with themselves
-        if (animal instanceof Parrot)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return PARROT;
     }
 }
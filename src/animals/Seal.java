@@ -15,12 +15,13 @@ public class Seal extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks given animal is a seal or a starfish
+        // the given animal must be a seal or a starfish
         // since seals are compatible with themselves and starfish
-        if (animal instanceof Starfish || animal instanceof Seal)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return SEAL;
     }
 }
@@ -15,12 +15,13 @@ public class Shark extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks given animal is a shark or a starfish
+        // the given animal must be a shark or a starfish
         // since sharks are compatible with themselves and starfish
-        if (animal instanceof Starfish || animal instanceof Shark)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return SHARK;
     }
 }
@@ -15,12 +15,13 @@ public class Starfish extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks given animal is either a shark, seal or a starfish
+        // the given animal must be either a shark, seal or a starfish
         // since starfish are compatible with both sharks and seals, as well as themselves
-        if (animal instanceof Shark || animal instanceof Seal || animal instanceof Starfish)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return STARFISH;
     }
 }
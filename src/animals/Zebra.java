@@ -15,12 +15,13 @@ public class Zebra extends Animal {
 
     @Override
     public boolean isCompatibleWith(Animal animal) {
-        // checks given animal is a zebra or a gazelle
+        // the given animal must be a zebra or a gazelle
         // since zebras are compatible with themselves and gazelles
-        if (animal instanceof Gazelle || animal instanceof Zebra)
-        {
-            return true;
-        }
-        return false;
+        return (getCompatibleSpecies() & animal.getSpeciesBit()) != 0;
+    }
+
+    @Override
+    public int getSpeciesId() {
+        return ZEBRA;
     }
 }
@@ -1,5 +1,7 @@
 package areas;
 
+import dataStructures.AreaConnections;
+
 import java.util.ArrayList;
 
 /** this class is a superclass for all the areas
@@ -10,9 +12,18 @@ import java.util.ArrayList;
 
 public abstract class Areas implements IArea {
 
-    // this ArrayList is used to keep track
-    // of all the adjacent areas to the given area
-    private ArrayList<Integer> adjacentAreasID = new ArrayList<>();
+    // the kinds of area, a small number for every area class
+    public static final int ENTRANCE = 0;
+    public static final int PICNIC_AREA = 1;
+    public static final int ENCLOSURE = 2;
+    public static final int CAGE = 3;
+    public static final int AQUARIUM = 4;
+    public static final int NR_KINDS = 5;
+
+    // the connections of the zoo this area was added to, and the ID it was given there
+    // the adjacent areas are only stored once, by the zoo, and read from there when needed
+    private AreaConnections zooConnections;
+    private int areaID;
 
     // checks if given area is a habitat
     public boolean isAreaAHabitat(IArea area) {
@@ -24,12 +35,31 @@ public abstract class Areas implements IArea {
         return true;
     }
 
+    // returns the kind of this area (ENTRANCE, PICNIC_AREA, ...), used to look up which animals it can hold
+    public abstract int getAreaKind();
+
+    /**
+     * this method links the area to the connections of the zoo it was added to
+     * @param connections the connections of the zoo, or null once the area is removed
+     * @param areaId the ID the zoo gave to this area
+     */
+    public void setZooConnections(AreaConnections connections, int areaId) {
+        zooConnections = connections;
+        areaID = areaId;
+    }
+
     /**
      * this method returns the IDs of all its neighbouring areas
+     * the list is built from the zoo's connections every time, so changing it does not change the zoo
      * @return an ArrayList of all the IDs of adjacent areas
      */
     public ArrayList<Integer> getAdjacentAreas() {
-        return adjacentAreasID;
+        // an area that is not part of a zoo has no neighbours
+        if (zooConnections == null)
+        {
+            return new ArrayList<>();
+        }
+        return zooConnections.getConnectionsList(areaID);
     }
 
 }
@@ -8,5 +8,9 @@ public class Entrance extends Areas {
         ArrayList<Integer> adjacentAreasID = new ArrayList<>();
     }
 
+    @Override
+    public int getAreaKind() {
+        return ENTRANCE;
+    }
 
 }
@@ -3,6 +3,7 @@ package areas;
 import animals.Animal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /** this class is a superclass for all the animal habitats
  * this reduces code duplication in the habitat subclasses (aquarium, cage, enclosure)
@@ -12,26 +13,142 @@ import java.util.ArrayList;
  */
 public abstract class Habitats extends Areas {
 
-    // checks if the habitat is full
+    // the maximum number of inhabitants
+    private int capacity;
+    /**
+     * the animals living in the habitat and their nicknames, in the order they were added
+     * only the first nrInhabitants entries are in use, and entries are never changed once written
+     * an animal is written before nrInhabitants is raised, and a full array is replaced by a larger copy before that,
+     * so readers that read nrInhabitants first and the arrays second can read without a lock
+     */
+    private volatile Animal[] inhabitants = new Animal[4];
+    private volatile String[] nicknames = new String[4];
+    private volatile int nrInhabitants = 0;
+    // the nicknames of all inhabitants as one array, with the version they were taken at, only rebuilt after an inhabitant is added
+    private volatile NicknameSnapshot nicknameSnapshot = new NicknameSnapshot(0, new String[0]);
+    // raised every time an inhabitant is added, and never lowered, so a changed habitat never shows an old version
+    // it is raised after the inhabitant is published, so a reader that reads the version first sees at least that many inhabitants
+    private volatile int inhabitantsVersion = 0;
+    // the species every inhabitant can live with, so a new animal is checked against all of them with one AND
+    // every species is allowed while the habitat is empty
+    private volatile int compatibleSpecies = -1;
+    // set once an inhabitant of an unknown species is added, from then on every new animal is checked
+    // against the inhabitants one at a time, with isCompatibleWith, as the bitmask cannot describe that inhabitant
+    private volatile boolean hasUnknownSpecies = false;
+
+    // Constructor, shared by all habitats
+    protected Habitats(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // checks if the habitat is full, areas that are not habitats are never full
     public boolean isHabitatFull(IArea area) {
-        // checks the habitat type and calls the appropriate method to check if full
-        if (area instanceof Enclosure && ((Enclosure) area).isEnclosureFull())
+        // every habitat keeps its capacity and inhabitants here, so there is no need to check the habitat type
+        return area instanceof Habitats && ((Habitats) area).isFull();
+    }
+
+    // checks if the inhabitants have reached the capacity
+    public boolean isFull() {
+        return nrInhabitants >= capacity;
+    }
+
+    // returns a list of all the inhabitants, copied so it can be used while animals are being added
+    public ArrayList<Animal> getInhabitants() {
+        int size = nrInhabitants;
+        return new ArrayList<>(Arrays.asList(inhabitants).subList(0, size));
+    }
+
+    // returns the number of inhabitants
+    public int getNrInhabitants() {
+        return nrInhabitants;
+    }
+
+    // returns the maximum number of inhabitants
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * this method returns the nicknames of all inhabitants, which visitors see when visiting the habitat
+     * it never takes a lock, and the array is only rebuilt after an inhabitant is added, so it must not be modified
+     * @return an array of the nicknames of all inhabitants, in the order they were added
+     */
+    public String[] getNicknames() {
+        int version = inhabitantsVersion;
+        NicknameSnapshot snapshot = nicknameSnapshot;
+        if (snapshot.version != version)
         {
-            return true;
+            // inhabitants are only ever added, so the first nrInhabitants nicknames are the snapshot
+            // the version is read first, so a snapshot never holds fewer inhabitants than its version says
+            snapshot = new NicknameSnapshot(version, Arrays.copyOf(nicknames, nrInhabitants));
+            nicknameSnapshot = snapshot;
+        }
+        return snapshot.nicknames;
+    }
+
+    /**
+     * @return a number that changes every time an inhabitant is added, and never goes back to an earlier value
+     */
+    public int getInhabitantsVersion() {
+        return inhabitantsVersion;
+    }
+
+    /** this method adds an inhabitant to the habitat, without checking it
+     * calls for the same habitat must not overlap (the zoo holds the habitat's lock around them)
+     * @param animal the animal to be added
+     */
+    public void addInhabitant(Animal animal) {
+        int size = nrInhabitants;
+        if (size == inhabitants.length)
+        {
+            inhabitants = Arrays.copyOf(inhabitants, size * 2);
+            nicknames = Arrays.copyOf(nicknames, size * 2);
         }
-        else if (area instanceof Cage && ((Cage) area).isCageFull())
+        inhabitants[size] = animal;
+        nicknames[size] = animal.getNickname();
+        if (animal.getSpeciesId() == Animal.UNKNOWN_SPECIES)
         {
-            return true;
+            hasUnknownSpecies = true;
         }
-        else if (area instanceof Aquarium && ((Aquarium) area).isAquariumFull())
+        else
         {
+            compatibleSpecies &= animal.getCompatibleSpecies();
+        }
+        // published after it is written, so readers never see an inhabitant before that
+        nrInhabitants = size + 1;
+        // the calls never overlap, so the version can be raised without a compare-and-set
+        inhabitantsVersion++;
+    }
+
+    /**
+     * this method checks a new animal against all the inhabitants at once
+     * @param animal the animal that would be added
+     * @return true if every inhabitant is compatible with the animal
+     */
+    public boolean isCompatibleWithInhabitants(Animal animal) {
+        if (animal.getSpeciesId() == Animal.UNKNOWN_SPECIES || hasUnknownSpecies)
+        {
+            // every inhabitant is asked, as the habitats did before species had IDs
+            int size = nrInhabitants;
+            Animal[] currentInhabitants = inhabitants;
+            for (int inhabitantCounter = 0; inhabitantCounter < size; inhabitantCounter++) {
+                if (!currentInhabitants[inhabitantCounter].isCompatibleWith(animal))
+                {
+                    return false;
+                }
+            }
             return true;
         }
-        return false;
+        return (compatibleSpecies & animal.getSpeciesBit()) != 0;
     }
 
-    // returns a list of all the inhabitants
-    public abstract ArrayList<Animal> getInhabitants();
+    /**
+     * @return a bitmask of the species every inhabitant can live with, with all bits set while the habitat is empty,
+     *         and none once an animal of an unknown species lives there
+     */
+    public int getCompatibleSpecies() {
+        return hasUnknownSpecies ? 0 : compatibleSpecies;
+    }
 
 
     /** this method adds an inhabitant to a given area
@@ -40,18 +157,20 @@ public abstract class Habitats extends Areas {
      */
     public void addInhabitant(Animal animal, IArea area)
     {
-        if (area instanceof Aquarium)
-        {
-            ((Aquarium) area).addInhabitant(animal);
-        }
-        else if (area instanceof Enclosure)
-        {
-            ((Enclosure) area).addInhabitant(animal);
-        }
-        else if (area instanceof Cage)
-        {
-            ((Cage) area).addInhabitant(animal);
+        ((Habitats) area).addInhabitant(animal);
+    }
+
+    /** the nicknames of the inhabitants at one version, kept in one object so the two are always read together */
+    private static class NicknameSnapshot {
+
+        private final int version;
+        private final String[] nicknames;
+
+        NicknameSnapshot(int version, String[] nicknames) {
+            this.version = version;
+            this.nicknames = nicknames;
         }
+
     }
 
 
@@ -10,5 +10,9 @@ public class PicnicArea extends Areas {
         ArrayList<Integer> adjacentAreasID = new ArrayList<>();
     }
 
+    @Override
+    public int getAreaKind() {
+        return PICNIC_AREA;
+    }
 
 }
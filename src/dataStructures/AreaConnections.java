@@ -0,0 +1,519 @@
+package dataStructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** this class stores the one-way connections between the areas of the zoo
+ * every area ID owns a growable segment of plain ints holding the IDs it leads to
+ * so no connection is ever boxed into an Integer
+ * the same segment also holds, after those, the IDs the area can be reached from,
+ * so removing an area only touches the areas it is connected with
+ * keeping both in one array saves an array (and its unused room) per area, which matters in zoos with few connections per area
+ * an ID is removed by moving the last ID of its part into its place, so the order of a segment is not kept
+ * long segments (such as those of a hub every area is connected with) also keep an index of where every ID is,
+ * so removing an area takes time in proportion to its own number of connections, however large its neighbours are
+ */
+public class AreaConnections {
+
+    // shared by all areas that have no connections yet
+    private static final int[] NO_CONNECTIONS = new int[0];
+    // segments this long get a position index, shorter ones are searched,
+    // which takes well under a microsecond and saves the index's memory, several times that of the segment
+    private static final int INDEXED_SEGMENT_SIZE = 256;
+
+    // the connection segment of every area, indexed by area ID
+    // the first sizes[areaId] entries are the areas it leads to, the next incomingSizes[areaId] those it is reached from
+    private int[][] segments = new int[16][];
+    private int[] sizes = new int[16];
+    private int[] incomingSizes = new int[16];
+    // where every ID is in the long parts of the segments, null for the others
+    private PositionIndex[] positionIndexes = new PositionIndex[16];
+    private PositionIndex[] incomingPositionIndexes = new PositionIndex[16];
+
+    // Constructor
+    public AreaConnections() {
+
+    }
+
+    /**
+     * this method makes room for the connections of a newly added area
+     * @param areaId the ID of the added area
+     */
+    public void addArea(int areaId) {
+        if (areaId >= segments.length)
+        {
+            // doubling keeps adding areas amortised constant time
+            int newLength = Math.max(segments.length * 2, areaId + 1);
+            segments = Arrays.copyOf(segments, newLength);
+            sizes = Arrays.copyOf(sizes, newLength);
+            incomingSizes = Arrays.copyOf(incomingSizes, newLength);
+            positionIndexes = Arrays.copyOf(positionIndexes, newLength);
+            incomingPositionIndexes = Arrays.copyOf(incomingPositionIndexes, newLength);
+        }
+        segments[areaId] = NO_CONNECTIONS;
+        sizes[areaId] = 0;
+        incomingSizes[areaId] = 0;
+        positionIndexes[areaId] = null;
+        incomingPositionIndexes[areaId] = null;
+    }
+
+    /**
+     * this method discards all the connections leading into and out of an area
+     * only the segments of the areas it is connected with are updated, instead of every segment
+     * @param areaId the ID of the removed area
+     */
+    public void removeArea(int areaId) {
+        if (areaId < 0 || areaId >= segments.length || segments[areaId] == null)
+        {
+            return;
+        }
+        int[] segment = segments[areaId];
+        int size = sizes[areaId];
+        int incomingSize = incomingSizes[areaId];
+        // the removed area can no longer be reached from the areas it led to
+        for (int position = 0; position < size; position++) {
+            if (segment[position] != areaId)
+            {
+                removeIncoming(segment[position], areaId);
+            }
+        }
+        // and the areas leading to it no longer lead anywhere through it
+        for (int position = size; position < size + incomingSize; position++) {
+            if (segment[position] != areaId)
+            {
+                removeOutgoing(segment[position], areaId);
+            }
+        }
+        segments[areaId] = null;
+        sizes[areaId] = 0;
+        incomingSizes[areaId] = 0;
+        positionIndexes[areaId] = null;
+        incomingPositionIndexes[areaId] = null;
+    }
+
+    /**
+     * this method adds a one-way connection between two areas
+     * @param fromAreaId the ID of the area the connection starts from
+     * @param toAreaId the ID of the area the connection leads to
+     */
+    public void addConnection(int fromAreaId, int toAreaId) {
+        addOutgoing(fromAreaId, toAreaId);
+        addIncoming(toAreaId, fromAreaId);
+    }
+
+    /**
+     * this method adds many connections at once
+     * the new connections of every area are counted first, so every segment is grown to its final size only once
+     * @param packedConnections the connections, each packed as (from << 32 | to), between areas that were already added
+     * @param nrConnections the number of connections to add, from the start of the array
+     */
+    public void addConnections(long[] packedConnections, int nrConnections) {
+        int[] newSizes = new int[segments.length];
+        int[] newIncomingSizes = new int[segments.length];
+        for (int connectionCounter = 0; connectionCounter < nrConnections; connectionCounter++) {
+            newSizes[(int) (packedConnections[connectionCounter] >>> 32)]++;
+            newIncomingSizes[(int) packedConnections[connectionCounter]]++;
+        }
+        // every segment that grows is copied once to its final size, with room left for its new connections,
+        // and the counts become the positions the new connections are written to
+        for (int areaId = 0; areaId < segments.length; areaId++) {
+            if (newSizes[areaId] > 0 || newIncomingSizes[areaId] > 0)
+            {
+                int size = sizes[areaId];
+                int incomingSize = incomingSizes[areaId];
+                int[] segment = new int[size + newSizes[areaId] + incomingSize + newIncomingSizes[areaId]];
+                System.arraycopy(segments[areaId], 0, segment, 0, size);
+                System.arraycopy(segments[areaId], size, segment, size + newSizes[areaId], incomingSize);
+                segments[areaId] = segment;
+                newIncomingSizes[areaId] = size + newSizes[areaId] + incomingSize;
+                newSizes[areaId] = size;
+            }
+        }
+        for (int connectionCounter = 0; connectionCounter < nrConnections; connectionCounter++) {
+            int fromAreaId = (int) (packedConnections[connectionCounter] >>> 32);
+            int toAreaId = (int) packedConnections[connectionCounter];
+            segments[fromAreaId][newSizes[fromAreaId]++] = toAreaId;
+            segments[toAreaId][newIncomingSizes[toAreaId]++] = fromAreaId;
+        }
+        // the segments that grew long enough are indexed once all their IDs are in place
+        for (int areaId = 0; areaId < segments.length; areaId++) {
+            if (segments[areaId] != null && newIncomingSizes[areaId] == segments[areaId].length && newIncomingSizes[areaId] > 0)
+            {
+                int oldSize = sizes[areaId];
+                int oldIncomingSize = incomingSizes[areaId];
+                sizes[areaId] = newSizes[areaId];
+                incomingSizes[areaId] = newIncomingSizes[areaId] - newSizes[areaId];
+                indexOutgoing(areaId, oldSize);
+                // the IDs the area is reached from all moved if it got new connections of its own
+                if (sizes[areaId] != oldSize)
+                {
+                    incomingPositionIndexes[areaId] = null;
+                    oldIncomingSize = 0;
+                }
+                indexIncoming(areaId, oldIncomingSize);
+            }
+        }
+    }
+
+    /**
+     * this method checks whether one area leads directly to another
+     * long segments are looked up in their index, otherwise the shorter of the two parts is searched,
+     * which holds fewer than INDEXED_SEGMENT_SIZE IDs, so the check takes constant time and never allocates
+     * @param fromAreaId the ID of the area the connection starts from
+     * @param toAreaId the ID of the area the connection leads to
+     * @return true if the connection exists
+     */
+    public boolean contains(int fromAreaId, int toAreaId) {
+        if (fromAreaId < 0 || fromAreaId >= segments.length || segments[fromAreaId] == null
+                || toAreaId < 0 || toAreaId >= segments.length || segments[toAreaId] == null)
+        {
+            return false;
+        }
+        if (positionIndexes[fromAreaId] != null)
+        {
+            return positionIndexes[fromAreaId].get(toAreaId) != PositionIndex.NOT_FOUND;
+        }
+        if (incomingPositionIndexes[toAreaId] != null)
+        {
+            return incomingPositionIndexes[toAreaId].get(fromAreaId) != PositionIndex.NOT_FOUND;
+        }
+        if (sizes[fromAreaId] <= incomingSizes[toAreaId])
+        {
+            return findPosition(segments[fromAreaId], 0, sizes[fromAreaId], toAreaId) != PositionIndex.NOT_FOUND;
+        }
+        int incomingStart = sizes[toAreaId];
+        return findPosition(segments[toAreaId], incomingStart, incomingStart + incomingSizes[toAreaId], fromAreaId) != PositionIndex.NOT_FOUND;
+    }
+
+    /**
+     * @param areaId the ID of the area
+     * @return the number of areas that can be reached directly from the given area
+     */
+    public int getNrConnections(int areaId) {
+        if (areaId < 0 || areaId >= sizes.length)
+        {
+            return 0;
+        }
+        return sizes[areaId];
+    }
+
+    /**
+     * this method gives direct access to the segment of an area, to avoid copying it
+     * only the first getNrConnections(areaId) entries are the connections, and the array must not be modified
+     * @param areaId the ID of the area
+     * @return the IDs of the areas that can be reached directly from the given area
+     */
+    public int[] getConnections(int areaId) {
+        if (areaId < 0 || areaId >= segments.length || segments[areaId] == null)
+        {
+            return NO_CONNECTIONS;
+        }
+        return segments[areaId];
+    }
+
+    /**
+     * @param areaId the ID of the area
+     * @return the number of areas the given area can be reached from directly
+     */
+    public int getNrIncomingConnections(int areaId) {
+        if (areaId < 0 || areaId >= incomingSizes.length)
+        {
+            return 0;
+        }
+        return incomingSizes[areaId];
+    }
+
+    /**
+     * this method gives direct access to the segment of an area, to avoid copying it
+     * the areas the given area is reached from are the getNrIncomingConnections(areaId) entries
+     * from getIncomingConnectionsStart(areaId) onwards, and the array must not be modified
+     * @param areaId the ID of the area
+     * @return the segment holding the IDs of the areas the given area can be reached from directly
+     */
+    public int[] getIncomingConnections(int areaId) {
+        return getConnections(areaId);
+    }
+
+    /**
+     * @param areaId the ID of the area
+     * @return the position in getIncomingConnections(areaId) of the first area the given area can be reached from
+     */
+    public int getIncomingConnectionsStart(int areaId) {
+        return getNrConnections(areaId);
+    }
+
+    /**
+     * this method copies the connections of an area into a new list
+     * @param areaId the ID of the area
+     * @return an ArrayList of the IDs of the areas that can be reached directly from the given area
+     */
+    public ArrayList<Integer> getConnectionsList(int areaId) {
+        int size = getNrConnections(areaId);
+        int[] segment = getConnections(areaId);
+        ArrayList<Integer> connectionsList = new ArrayList<>(size);
+        for (int connectionCounter = 0; connectionCounter < size; connectionCounter++) {
+            connectionsList.add(segment[connectionCounter]);
+        }
+        return connectionsList;
+    }
+
+    // ---------------- SEGMENTS ----------------
+
+    // adds an ID to the end of the outgoing part of a segment
+    // the first incoming ID is moved to the end of the segment to make room, which is why the incoming order is not kept
+    private void addOutgoing(int areaId, int connectedAreaId) {
+        int[] segment = makeRoom(areaId);
+        int size = sizes[areaId];
+        int incomingSize = incomingSizes[areaId];
+        if (incomingSize > 0)
+        {
+            moveIncoming(areaId, segment, size, size + incomingSize);
+        }
+        segment[size] = connectedAreaId;
+        sizes[areaId] = size + 1;
+        indexOutgoing(areaId, size);
+    }
+
+    // adds an ID to the end of the incoming part of a segment
+    private void addIncoming(int areaId, int connectedAreaId) {
+        int[] segment = makeRoom(areaId);
+        int incomingSize = incomingSizes[areaId];
+        segment[sizes[areaId] + incomingSize] = connectedAreaId;
+        incomingSizes[areaId] = incomingSize + 1;
+        indexIncoming(areaId, incomingSize);
+    }
+
+    // returns the segment of an area, grown first if it has no room for one more ID
+    private int[] makeRoom(int areaId) {
+        int[] segment = segments[areaId];
+        int length = sizes[areaId] + incomingSizes[areaId];
+        if (length == segment.length)
+        {
+            // growing by an eighth keeps adding amortised constant time, and leaves little unused room
+            segment = Arrays.copyOf(segment, length + (length >> 3) + 2);
+            segments[areaId] = segment;
+        }
+        return segment;
+    }
+
+    // removes an ID from the outgoing part of a segment, moving the last outgoing ID into its place
+    // and the last incoming ID into the place that frees up, so the incoming IDs still follow straight on
+    private void removeOutgoing(int areaId, int connectedAreaId) {
+        int[] segment = segments[areaId];
+        int lastPosition = sizes[areaId] - 1;
+        int position = findPosition(segment, 0, lastPosition + 1, connectedAreaId, positionIndexes[areaId]);
+        if (position == PositionIndex.NOT_FOUND)
+        {
+            return;
+        }
+        int movedAreaId = segment[lastPosition];
+        segment[position] = movedAreaId;
+        sizes[areaId] = lastPosition;
+        positionIndexes[areaId] = updateRemoved(positionIndexes[areaId], connectedAreaId, position, movedAreaId, lastPosition, lastPosition);
+        int incomingSize = incomingSizes[areaId];
+        if (incomingSize > 0)
+        {
+            moveIncoming(areaId, segment, lastPosition + incomingSize, lastPosition);
+        }
+    }
+
+    // removes an ID from the incoming part of a segment, moving the last incoming ID into its place
+    private void removeIncoming(int areaId, int connectedAreaId) {
+        int[] segment = segments[areaId];
+        int start = sizes[areaId];
+        int lastPosition = start + incomingSizes[areaId] - 1;
+        int position = findPosition(segment, start, lastPosition + 1, connectedAreaId, incomingPositionIndexes[areaId]);
+        if (position == PositionIndex.NOT_FOUND)
+        {
+            return;
+        }
+        int movedAreaId = segment[lastPosition];
+        segment[position] = movedAreaId;
+        incomingSizes[areaId]--;
+        incomingPositionIndexes[areaId] = updateRemoved(incomingPositionIndexes[areaId], connectedAreaId, position, movedAreaId, lastPosition,
+                lastPosition - start);
+    }
+
+    // moves an incoming ID from one position of the segment to another, keeping its index up to date
+    private void moveIncoming(int areaId, int[] segment, int fromPosition, int toPosition) {
+        int movedAreaId = segment[fromPosition];
+        segment[toPosition] = movedAreaId;
+        PositionIndex index = incomingPositionIndexes[areaId];
+        if (index != null && index.get(movedAreaId) == fromPosition)
+        {
+            index.put(movedAreaId, toPosition);
+        }
+    }
+
+    // adds the outgoing IDs from the given one onwards to the index, indexing the whole part once it is long enough
+    private void indexOutgoing(int areaId, int firstNewId) {
+        positionIndexes[areaId] = updateIndex(positionIndexes[areaId], segments[areaId], 0, sizes[areaId], firstNewId);
+    }
+
+    private void indexIncoming(int areaId, int firstNewId) {
+        incomingPositionIndexes[areaId] = updateIndex(incomingPositionIndexes[areaId], segments[areaId], sizes[areaId], incomingSizes[areaId], firstNewId);
+    }
+
+    // returns the index of the part of a segment after its IDs from the given one onwards were added to it
+    private static PositionIndex updateIndex(PositionIndex index, int[] segment, int start, int size, int firstNewId) {
+        if (index == null)
+        {
+            if (size < INDEXED_SEGMENT_SIZE)
+            {
+                return null;
+            }
+            index = new PositionIndex(size);
+            firstNewId = 0;
+        }
+        for (int position = start + firstNewId; position < start + size; position++) {
+            index.put(segment[position], position);
+        }
+        return index;
+    }
+
+    // returns the index of the part of a segment after an ID was removed from it and the last ID moved into its place
+    private static PositionIndex updateRemoved(PositionIndex index, int removedAreaId, int position, int movedAreaId, int lastPosition, int newSize) {
+        if (index == null)
+        {
+            return null;
+        }
+        index.remove(removedAreaId, position);
+        if (position != lastPosition && index.get(movedAreaId) == lastPosition)
+        {
+            index.put(movedAreaId, position);
+        }
+        // a part that became short again drops its index
+        return newSize < INDEXED_SEGMENT_SIZE / 2 ? null : index;
+    }
+
+    // finds the position of an ID in the part of a segment, through its index if it has one
+    private static int findPosition(int[] segment, int start, int end, int connectedAreaId, PositionIndex index) {
+        int position = index == null ? PositionIndex.NOT_FOUND : index.get(connectedAreaId);
+        // short parts are not indexed, and an index only knows one position of an ID added more than once
+        return position != PositionIndex.NOT_FOUND ? position : findPosition(segment, start, end, connectedAreaId);
+    }
+
+    // searches the part of a segment from its end, where the most recently added IDs are
+    private static int findPosition(int[] segment, int start, int end, int connectedAreaId) {
+        for (int position = end - 1; position >= start; position--) {
+            if (segment[position] == connectedAreaId)
+            {
+                return position;
+            }
+        }
+        return PositionIndex.NOT_FOUND;
+    }
+
+    /** the position of every ID in one long part of a segment, in an open addressing table of ID and position pairs */
+    private static class PositionIndex {
+
+        static final int NOT_FOUND = -1;
+        // marks a free slot, since area IDs are never negative
+        private static final int EMPTY = -1;
+
+        // the IDs and their positions, the length of the table is always a power of two
+        private int[] ids;
+        private int[] positions;
+        private int size = 0;
+
+        PositionIndex(int expectedSize) {
+            int length = 16;
+            while (length < expectedSize * 2) {
+                length *= 2;
+            }
+            ids = new int[length];
+            Arrays.fill(ids, EMPTY);
+            positions = new int[length];
+        }
+
+        int get(int id) {
+            int mask = ids.length - 1;
+            for (int slot = hash(id) & mask; ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (ids[slot] == id)
+                {
+                    return positions[slot];
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        // sets the position of an ID, replacing its previous position if it has one
+        void put(int id, int position) {
+            // keep the table at most half full, so searches stay short
+            if (size * 2 >= ids.length)
+            {
+                resize(ids.length * 2);
+            }
+            int mask = ids.length - 1;
+            int slot = hash(id) & mask;
+            while (ids[slot] != EMPTY && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (ids[slot] == EMPTY)
+            {
+                ids[slot] = id;
+                size++;
+            }
+            positions[slot] = position;
+        }
+
+        // removes an ID if it is at the given position, moving back the IDs after it so no deleted markers are left
+        void remove(int id, int position) {
+            int mask = ids.length - 1;
+            int slot = hash(id) & mask;
+            while (ids[slot] != id) {
+                if (ids[slot] == EMPTY)
+                {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (positions[slot] != position)
+            {
+                return;
+            }
+            int freeSlot = slot;
+            int nextSlot = (slot + 1) & mask;
+            while (ids[nextSlot] != EMPTY) {
+                int homeSlot = hash(ids[nextSlot]) & mask;
+                if (((nextSlot - homeSlot) & mask) >= ((nextSlot - freeSlot) & mask))
+                {
+                    ids[freeSlot] = ids[nextSlot];
+                    positions[freeSlot] = positions[nextSlot];
+                    freeSlot = nextSlot;
+                }
+                nextSlot = (nextSlot + 1) & mask;
+            }
+            ids[freeSlot] = EMPTY;
+            size--;
+        }
+
+        private void resize(int newLength) {
+            int[] oldIds = ids;
+            int[] oldPositions = positions;
+            ids = new int[newLength];
+            Arrays.fill(ids, EMPTY);
+            positions = new int[newLength];
+            int mask = newLength - 1;
+            for (int oldSlot = 0; oldSlot < oldIds.length; oldSlot++) {
+                if (oldIds[oldSlot] != EMPTY)
+                {
+                    int slot = hash(oldIds[oldSlot]) & mask;
+                    while (ids[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    ids[slot] = oldIds[oldSlot];
+                    positions[slot] = oldPositions[oldSlot];
+                }
+            }
+        }
+
+        // spreads the bits of the ID, so consecutive area IDs do not end up in consecutive slots
+        private static int hash(int id) {
+            int hash = id * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package dataStructures;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** this class finds every area that can be reached from a starting area using all available cores
+ * the search expands one level of areas at a time on the ForkJoinPool and picks the cheaper direction per level:
+ * - top-down: the areas of the current level look at the areas they lead to (cheap while the level is small)
+ * - bottom-up: every area not reached yet looks for a connection from the current level (cheap once the level is large)
+ * it is meant for very large zoos, for small ones the sequential search in ReachableAreas is faster
+ */
+public class ParallelAreaSearch {
+
+    // the number of areas of the current level handled by one task in a top-down step
+    private static final int TOP_DOWN_CHUNK = 1024;
+    // the number of bitset words (64 areas each) handled by one task in a bottom-up step
+    private static final int BOTTOM_UP_CHUNK = 64;
+    // switch to bottom-up once the current level has more than 1/ALPHA of the unexplored connections
+    private static final int ALPHA = 14;
+    // switch back to top-down once the current level has fewer than 1/BETA of all areas
+    private static final int BETA = 24;
+
+    private AreaConnections connections;
+    private int nrAreaIds;
+    // one bit per area ID, set once the area has been reached
+    private AtomicLongArray reachedAreas;
+
+    private ParallelAreaSearch(AreaConnections connections, int nrAreaIds) {
+        this.connections = connections;
+        this.nrAreaIds = nrAreaIds;
+        this.reachedAreas = new AtomicLongArray((nrAreaIds >> 6) + 1);
+    }
+
+    /**
+     * this method finds all the areas that can be reached from the given area
+     * @param connections the connections between the areas
+     * @param nrAreaIds one more than the highest area ID in use
+     * @param startAreaId the ID of the area the search starts from
+     * @return a bitset with one bit per area ID, set for every area that can be reached
+     */
+    public static long[] findReachableAreas(AreaConnections connections, int nrAreaIds, int startAreaId) {
+        ParallelAreaSearch search = new ParallelAreaSearch(connections, nrAreaIds);
+        search.search(startAreaId);
+        long[] reachableAreas = new long[search.reachedAreas.length()];
+        for (int wordCounter = 0; wordCounter < reachableAreas.length; wordCounter++) {
+            reachableAreas[wordCounter] = search.reachedAreas.get(wordCounter);
+        }
+        return reachableAreas;
+    }
+
+    private void search(int startAreaId) {
+        long unexploredConnections = 0;
+        for (int areaId = 0; areaId < nrAreaIds; areaId++) {
+            unexploredConnections += connections.getNrConnections(areaId);
+        }
+        reachedAreas.set(startAreaId >> 6, 1L << startAreaId);
+        int[] currentLevel = { startAreaId };
+        // the current level as a bitset, only kept up to date while searching bottom-up
+        long[] currentLevelBits = null;
+        boolean bottomUp = false;
+        while (currentLevel.length > 0) {
+            long levelConnections = 0;
+            for (int areaId : currentLevel) {
+                levelConnections += connections.getNrConnections(areaId);
+            }
+            unexploredConnections -= levelConnections;
+            // pick the direction for this level
+            if (!bottomUp && levelConnections > unexploredConnections / ALPHA)
+            {
+                bottomUp = true;
+                currentLevelBits = null;
+            }
+            else if (bottomUp && currentLevel.length < nrAreaIds / BETA)
+            {
+                bottomUp = false;
+            }
+            if (bottomUp)
+            {
+                if (currentLevelBits == null)
+                {
+                    currentLevelBits = toBits(currentLevel);
+                }
+                long[] nextLevelBits = new long[reachedAreas.length()];
+                currentLevel = bottomUpStep(currentLevelBits, nextLevelBits);
+                currentLevelBits = nextLevelBits;
+            }
+            else
+            {
+                currentLevel = topDownStep(currentLevel);
+                currentLevelBits = null;
+            }
+        }
+    }
+
+    /**
+     * every area of the current level claims the areas it leads to that were not reached yet
+     * @param currentLevel the IDs of the areas reached in the previous step
+     * @return the IDs of the areas reached in this step
+     */
+    private int[] topDownStep(int[] currentLevel) {
+        int nrChunks = (currentLevel.length + TOP_DOWN_CHUNK - 1) / TOP_DOWN_CHUNK;
+        List<int[]> nextLevelChunks = IntStream.range(0, nrChunks).parallel().mapToObj(chunk -> {
+            int[] nextLevel = new int[16];
+            int nextLevelSize = 0;
+            int chunkEnd = Math.min(currentLevel.length, (chunk + 1) * TOP_DOWN_CHUNK);
+            for (int levelCounter = chunk * TOP_DOWN_CHUNK; levelCounter < chunkEnd; levelCounter++) {
+                int areaId = currentLevel[levelCounter];
+                int[] adjacentAreas = connections.getConnections(areaId);
+                int nrAdjacentAreas = connections.getNrConnections(areaId);
+                for (int adjacentCounter = 0; adjacentCounter < nrAdjacentAreas; adjacentCounter++) {
+                    int adjacentAreaId = adjacentAreas[adjacentCounter];
+                    // only the task that sets the bit adds the area to the next level
+                    if (markReached(adjacentAreaId))
+                    {
+                        if (nextLevelSize == nextLevel.length)
+                        {
+                            nextLevel = Arrays.copyOf(nextLevel, nextLevelSize * 2);
+                        }
+                        nextLevel[nextLevelSize++] = adjacentAreaId;
+                    }
+                }
+            }
+            return Arrays.copyOf(nextLevel, nextLevelSize);
+        }).collect(Collectors.toList());
+        return concatenate(nextLevelChunks);
+    }
+
+    /**
+     * every area not reached yet checks if one of its incoming connections starts in the current level
+     * each task owns whole bitset words, so no two tasks ever write to the same word of nextLevelBits
+     * @param currentLevelBits the areas reached in the previous step, as a bitset
+     * @param nextLevelBits filled with the areas reached in this step
+     * @return the IDs of the areas reached in this step
+     */
+    private int[] bottomUpStep(long[] currentLevelBits, long[] nextLevelBits) {
+        int nrWords = reachedAreas.length();
+        int nrChunks = (nrWords + BOTTOM_UP_CHUNK - 1) / BOTTOM_UP_CHUNK;
+        List<int[]> nextLevelChunks = IntStream.range(0, nrChunks).parallel().mapToObj(chunk -> {
+            int[] nextLevel = new int[16];
+            int nextLevelSize = 0;
+            int wordEnd = Math.min(nrWords, (chunk + 1) * BOTTOM_UP_CHUNK);
+            for (int wordCounter = chunk * BOTTOM_UP_CHUNK; wordCounter < wordEnd; wordCounter++) {
+                long unreachedBits = ~reachedAreas.get(wordCounter);
+                long newlyReachedBits = 0;
+                while (unreachedBits != 0) {
+                    int areaId = (wordCounter << 6) + Long.numberOfTrailingZeros(unreachedBits);
+                    unreachedBits &= unreachedBits - 1;
+                    if (areaId >= nrAreaIds)
+                    {
+                        break;
+                    }
+                    int[] incomingAreas = connections.getIncomingConnections(areaId);
+                    int incomingStart = connections.getIncomingConnectionsStart(areaId);
+                    int incomingEnd = incomingStart + connections.getNrIncomingConnections(areaId);
+                    for (int incomingCounter = incomingStart; incomingCounter < incomingEnd; incomingCounter++) {
+                        int incomingAreaId = incomingAreas[incomingCounter];
+                        // stop at the first connection from the current level
+                        if ((currentLevelBits[incomingAreaId >> 6] & (1L << incomingAreaId)) != 0)
+                        {
+                            newlyReachedBits |= 1L << areaId;
+                            if (nextLevelSize == nextLevel.length)
+                            {
+                                nextLevel = Arrays.copyOf(nextLevel, nextLevelSize * 2);
+                            }
+                            nextLevel[nextLevelSize++] = areaId;
+                            break;
+                        }
+                    }
+                }
+                if (newlyReachedBits != 0)
+                {
+                    final long reachedBits = newlyReachedBits;
+                    reachedAreas.getAndUpdate(wordCounter, word -> word | reachedBits);
+                    nextLevelBits[wordCounter] = newlyReachedBits;
+                }
+            }
+            return Arrays.copyOf(nextLevel, nextLevelSize);
+        }).collect(Collectors.toList());
+        return concatenate(nextLevelChunks);
+    }
+
+    // sets the bit of the given area, returns true if this call was the one that set it
+    private boolean markReached(int areaId) {
+        int word = areaId >> 6;
+        long bit = 1L << areaId;
+        long currentWord = reachedAreas.get(word);
+        while ((currentWord & bit) == 0) {
+            if (reachedAreas.compareAndSet(word, currentWord, currentWord | bit))
+            {
+                return true;
+            }
+            currentWord = reachedAreas.get(word);
+        }
+        return false;
+    }
+
+    private long[] toBits(int[] areaIds) {
+        long[] bits = new long[reachedAreas.length()];
+        for (int areaId : areaIds) {
+            bits[areaId >> 6] |= 1L << areaId;
+        }
+        return bits;
+    }
+
+    private static int[] concatenate(List<int[]> chunks) {
+        int totalLength = 0;
+        for (int[] chunk : chunks) {
+            totalLength += chunk.length;
+        }
+        int[] joined = new int[totalLength];
+        int position = 0;
+        for (int[] chunk : chunks) {
+            System.arraycopy(chunk, 0, joined, position, chunk.length);
+            position += chunk.length;
+        }
+        return joined;
+    }
+
+}
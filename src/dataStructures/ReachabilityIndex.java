@@ -0,0 +1,174 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/** this class answers whether one area can be reached from another in constant time
+ * the areas are grouped into strongly connected components (areas that can all reach each other),
+ * found with an iterative version of Tarjan's algorithm so long paths cannot overflow the stack
+ * every component then stores a bitset of all the components it can reach
+ * the index describes the connections at the time it was built, and must be built again after they change
+ */
+public class ReachabilityIndex {
+
+    // the number of area IDs the index was built for
+    private int nrAreaIds;
+    // the component of every area
+    private int[] componentOf;
+    // for every component, the bitset of components it can reach
+    // components only reach components with a lower number, so row c only needs c + 1 bits
+    private long[][] reachableComponents;
+
+    /**
+     * this constructor builds the index from the current connections
+     * @param connections the connections between the areas
+     * @param nrAreaIds one more than the highest area ID in use
+     */
+    public ReachabilityIndex(AreaConnections connections, int nrAreaIds) {
+        this.nrAreaIds = nrAreaIds;
+        this.componentOf = new int[nrAreaIds];
+        // the areas in the order their components were completed, grouped by component
+        int[] areasByComponent = new int[nrAreaIds];
+        int[] componentStart = new int[nrAreaIds + 1];
+        int nrComponents = findComponents(connections, areasByComponent, componentStart);
+        // Tarjan's algorithm completes a component only after every component it leads to,
+        // so the components can be filled in increasing order
+        reachableComponents = new long[nrComponents][];
+        for (int component = 0; component < nrComponents; component++) {
+            long[] reachable = new long[(component >> 6) + 1];
+            reachable[component >> 6] |= 1L << component;
+            for (int memberCounter = componentStart[component]; memberCounter < componentStart[component + 1]; memberCounter++) {
+                int areaId = areasByComponent[memberCounter];
+                int[] adjacentAreas = connections.getConnections(areaId);
+                int nrAdjacentAreas = connections.getNrConnections(areaId);
+                for (int adjacentCounter = 0; adjacentCounter < nrAdjacentAreas; adjacentCounter++) {
+                    int adjacentComponent = componentOf[adjacentAreas[adjacentCounter]];
+                    // a component that is already included brought all of its own reachable components with it
+                    if ((reachable[adjacentComponent >> 6] & (1L << adjacentComponent)) != 0)
+                    {
+                        continue;
+                    }
+                    long[] adjacentReachable = reachableComponents[adjacentComponent];
+                    for (int wordCounter = 0; wordCounter < adjacentReachable.length; wordCounter++) {
+                        reachable[wordCounter] |= adjacentReachable[wordCounter];
+                    }
+                }
+            }
+            reachableComponents[component] = reachable;
+        }
+    }
+
+    /**
+     * @param fromAreaId the ID of the area to start from
+     * @param toAreaId the ID of the area to get to
+     * @return true if there is a path (possibly empty) from the first area to the second
+     */
+    public boolean isReachable(int fromAreaId, int toAreaId) {
+        if (fromAreaId == toAreaId)
+        {
+            return true;
+        }
+        // areas added after the index was built have no connections yet
+        if (fromAreaId < 0 || toAreaId < 0 || fromAreaId >= nrAreaIds || toAreaId >= nrAreaIds)
+        {
+            return false;
+        }
+        long[] reachable = reachableComponents[componentOf[fromAreaId]];
+        int toComponent = componentOf[toAreaId];
+        return (toComponent >> 6) < reachable.length && (reachable[toComponent >> 6] & (1L << toComponent)) != 0;
+    }
+
+    /**
+     * @return the number of strongly connected components the areas form
+     */
+    public int getNrComponents() {
+        return reachableComponents.length;
+    }
+
+    /**
+     * this method finds the strongly connected components, using Tarjan's algorithm with its own call stack
+     * @param connections the connections between the areas
+     * @param areasByComponent filled with the area IDs, grouped by component
+     * @param componentStart filled with the position in areasByComponent where every component starts
+     * @return the number of components
+     */
+    private int findComponents(AreaConnections connections, int[] areasByComponent, int[] componentStart) {
+        // the order in which every area was first found, -1 for areas not found yet
+        int[] discovered = new int[nrAreaIds];
+        Arrays.fill(discovered, -1);
+        // the earliest discovered area on the stack that every area can get back to
+        int[] lowest = new int[nrAreaIds];
+        long[] onStack = new long[(nrAreaIds >> 6) + 1];
+        int[] stack = new int[nrAreaIds];
+        int stackSize = 0;
+        // the search's own call stack: the area of every call, and the next connection it will follow
+        int[] callArea = new int[nrAreaIds];
+        int[] callNextConnection = new int[nrAreaIds];
+        int nrDiscovered = 0;
+        int nrComponents = 0;
+        int nrGrouped = 0;
+        for (int startAreaId = 0; startAreaId < nrAreaIds; startAreaId++) {
+            if (discovered[startAreaId] != -1)
+            {
+                continue;
+            }
+            int depth = 0;
+            callArea[0] = startAreaId;
+            callNextConnection[0] = 0;
+            discovered[startAreaId] = nrDiscovered;
+            lowest[startAreaId] = nrDiscovered++;
+            stack[stackSize++] = startAreaId;
+            onStack[startAreaId >> 6] |= 1L << startAreaId;
+            while (depth >= 0) {
+                int areaId = callArea[depth];
+                int connectionCounter = callNextConnection[depth];
+                if (connectionCounter < connections.getNrConnections(areaId))
+                {
+                    callNextConnection[depth]++;
+                    int adjacentAreaId = connections.getConnections(areaId)[connectionCounter];
+                    if (discovered[adjacentAreaId] == -1)
+                    {
+                        // "call" the search on the adjacent area
+                        discovered[adjacentAreaId] = nrDiscovered;
+                        lowest[adjacentAreaId] = nrDiscovered++;
+                        stack[stackSize++] = adjacentAreaId;
+                        onStack[adjacentAreaId >> 6] |= 1L << adjacentAreaId;
+                        depth++;
+                        callArea[depth] = adjacentAreaId;
+                        callNextConnection[depth] = 0;
+                    }
+                    else if ((onStack[adjacentAreaId >> 6] & (1L << adjacentAreaId)) != 0)
+                    {
+                        lowest[areaId] = Math.min(lowest[areaId], discovered[adjacentAreaId]);
+                    }
+                }
+                else
+                {
+                    // every connection was followed, so if the area cannot get back to an earlier one
+                    // it and everything above it on the stack form a component
+                    if (lowest[areaId] == discovered[areaId])
+                    {
+                        componentStart[nrComponents] = nrGrouped;
+                        int memberId;
+                        do {
+                            memberId = stack[--stackSize];
+                            onStack[memberId >> 6] &= ~(1L << memberId);
+                            componentOf[memberId] = nrComponents;
+                            areasByComponent[nrGrouped++] = memberId;
+                        } while (memberId != areaId);
+                        nrComponents++;
+                    }
+                    // "return" to the area this one was found from
+                    depth--;
+                    if (depth >= 0)
+                    {
+                        int callerAreaId = callArea[depth];
+                        lowest[callerAreaId] = Math.min(lowest[callerAreaId], lowest[areaId]);
+                    }
+                }
+            }
+        }
+        componentStart[nrComponents] = nrGrouped;
+        return nrComponents;
+    }
+
+}
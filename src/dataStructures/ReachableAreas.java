@@ -0,0 +1,263 @@
+package dataStructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** this class keeps track of which areas can be reached from a starting area (the entrance)
+ * it is updated as areas and connections are added, instead of searching the whole zoo again
+ * every time the unreachable areas are needed
+ * it can also follow the connections backwards, to keep track of the areas the starting area can be reached from
+ */
+public class ReachableAreas {
+
+    // the connections the reachable areas are found through
+    private AreaConnections connections;
+    // the ID of the area every search starts from
+    private int startAreaId;
+    // true if the connections are followed backwards (from the area they lead to, to the area they start from)
+    private boolean backwards;
+    // one bit per area ID, set for every area that currently exists
+    private long[] existingAreas = new long[1];
+    // one bit per area ID, set for every area that can be reached from the start area
+    private long[] reachableAreas = new long[1];
+    // for every reachable area, the area it was first reached from
+    // together these form a tree of paths from the start area, which tells which areas depend on a removed area
+    private int[] reachedFrom = new int[64];
+    // the queue used by the searches, reused so only its growth allocates
+    private int[] areasToCheck = new int[16];
+    // the areas that may have been cut off by a removal, reused like the queue
+    private int[] affectedAreas = new int[16];
+
+    // Constructor
+    public ReachableAreas(AreaConnections connections, int startAreaId) {
+        this(connections, startAreaId, false);
+    }
+
+    /**
+     * @param connections the connections the reachable areas are found through
+     * @param startAreaId the ID of the area every search starts from
+     * @param backwards true to keep track of the areas the start area can be reached from instead
+     */
+    public ReachableAreas(AreaConnections connections, int startAreaId, boolean backwards) {
+        this.connections = connections;
+        this.startAreaId = startAreaId;
+        this.backwards = backwards;
+        areaAdded(startAreaId);
+        markBit(reachableAreas, startAreaId);
+    }
+
+    /**
+     * this method records a newly added area, which is unreachable until it is connected
+     * @param areaId the ID of the added area
+     */
+    public void areaAdded(int areaId) {
+        if ((areaId >> 6) >= existingAreas.length)
+        {
+            int newLength = Math.max(existingAreas.length * 2, (areaId >> 6) + 1);
+            existingAreas = Arrays.copyOf(existingAreas, newLength);
+            reachableAreas = Arrays.copyOf(reachableAreas, newLength);
+            reachedFrom = Arrays.copyOf(reachedFrom, newLength << 6);
+        }
+        markBit(existingAreas, areaId);
+    }
+
+    /**
+     * this method records a removed area, and must be called before its connections are removed
+     * only the areas whose path from the start area goes through the removed area can become unreachable,
+     * so only those are checked again: they are all unmarked, and then marked again from those
+     * that still have a connection from a reachable area
+     * @param areaId the ID of the removed area
+     */
+    public void areaRemoved(int areaId) {
+        boolean wasReachable = isBitSet(reachableAreas, areaId);
+        clearBit(existingAreas, areaId);
+        clearBit(reachableAreas, areaId);
+        if (!wasReachable)
+        {
+            // an unreachable area never made any other area reachable
+            return;
+        }
+        int nrAffectedAreas = unmarkAreasReachedThrough(areaId);
+        for (int affectedCounter = 0; affectedCounter < nrAffectedAreas; affectedCounter++) {
+            int affectedAreaId = affectedAreas[affectedCounter];
+            // the area may have been marked again through an earlier affected area
+            if (isBitSet(reachableAreas, affectedAreaId))
+            {
+                continue;
+            }
+            int[] incomingAreas = getPreviousAreas(affectedAreaId);
+            int incomingStart = getPreviousAreasStart(affectedAreaId);
+            int incomingEnd = incomingStart + getNrPreviousAreas(affectedAreaId);
+            for (int incomingCounter = incomingStart; incomingCounter < incomingEnd; incomingCounter++) {
+                int incomingAreaId = incomingAreas[incomingCounter];
+                if (isBitSet(existingAreas, incomingAreaId) && isBitSet(reachableAreas, incomingAreaId))
+                {
+                    reachedFrom[affectedAreaId] = incomingAreaId;
+                    markReachableAreas(affectedAreaId);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * this method records a new connection
+     * if it leads from a reachable area to an unreachable one, only the newly reachable areas are searched
+     * @param fromAreaId the ID of the area the connection starts from
+     * @param toAreaId the ID of the area the connection leads to
+     */
+    public void connectionAdded(int fromAreaId, int toAreaId) {
+        if (backwards)
+        {
+            int swappedAreaId = fromAreaId;
+            fromAreaId = toAreaId;
+            toAreaId = swappedAreaId;
+        }
+        if (isBitSet(reachableAreas, fromAreaId) && !isBitSet(reachableAreas, toAreaId))
+        {
+            reachedFrom[toAreaId] = fromAreaId;
+            markReachableAreas(toAreaId);
+        }
+    }
+
+    /**
+     * @param areaId the ID of the area
+     * @return true if the area exists and can be reached from the start area
+     */
+    public boolean isReachable(int areaId) {
+        return isBitSet(existingAreas, areaId) && isBitSet(reachableAreas, areaId);
+    }
+
+    /**
+     * this method reads the areas that exist but cannot be reached, 64 areas at a time
+     * @return a list of the IDs of all unreachable areas, in increasing order
+     */
+    public ArrayList<Integer> getUnreachableAreas() {
+        ArrayList<Integer> unreachableAreas = new ArrayList<>();
+        for (int wordCounter = 0; wordCounter < existingAreas.length; wordCounter++) {
+            long unreachableBits = existingAreas[wordCounter] & ~reachableAreas[wordCounter];
+            // only the set bits are visited, so fully reachable words are skipped in one step
+            while (unreachableBits != 0) {
+                unreachableAreas.add((wordCounter << 6) + Long.numberOfTrailingZeros(unreachableBits));
+                unreachableBits &= unreachableBits - 1;
+            }
+        }
+        return unreachableAreas;
+    }
+
+    /**
+     * this method unmarks every reachable area whose path from the start area goes through the given area
+     * the start area is never unmarked, since it can always be reached
+     * @param areaId the ID of the removed area
+     * @return the number of unmarked areas, which are stored at the start of affectedAreas
+     */
+    private int unmarkAreasReachedThrough(int areaId) {
+        int queueStart = 0;
+        int queueEnd = 0;
+        int currentAreaId = areaId;
+        while (true) {
+            int[] adjacentAreas = getNextAreas(currentAreaId);
+            int adjacentStart = getNextAreasStart(currentAreaId);
+            int adjacentEnd = adjacentStart + getNrNextAreas(currentAreaId);
+            for (int adjacentCounter = adjacentStart; adjacentCounter < adjacentEnd; adjacentCounter++) {
+                int adjacentAreaId = adjacentAreas[adjacentCounter];
+                // areas first reached from somewhere else still have their own path from the start area
+                if (adjacentAreaId == startAreaId || !isBitSet(reachableAreas, adjacentAreaId) || reachedFrom[adjacentAreaId] != currentAreaId)
+                {
+                    continue;
+                }
+                clearBit(reachableAreas, adjacentAreaId);
+                if (queueEnd == affectedAreas.length)
+                {
+                    affectedAreas = Arrays.copyOf(affectedAreas, affectedAreas.length * 2);
+                }
+                affectedAreas[queueEnd++] = adjacentAreaId;
+            }
+            if (queueStart == queueEnd)
+            {
+                return queueEnd;
+            }
+            currentAreaId = affectedAreas[queueStart++];
+        }
+    }
+
+    /**
+     * this method marks every area reachable from the given (already reachable) area, using a breadth-first search
+     * areas that were already marked are not searched again
+     * @param areaId the ID of the area the search starts from
+     */
+    private void markReachableAreas(int areaId) {
+        int queueStart = 0;
+        int queueEnd = 0;
+        markBit(reachableAreas, areaId);
+        areasToCheck[queueEnd++] = areaId;
+        while (queueStart < queueEnd) {
+            int currentAreaId = areasToCheck[queueStart++];
+            int[] adjacentAreas = getNextAreas(currentAreaId);
+            int adjacentStart = getNextAreasStart(currentAreaId);
+            int adjacentEnd = adjacentStart + getNrNextAreas(currentAreaId);
+            for (int adjacentCounter = adjacentStart; adjacentCounter < adjacentEnd; adjacentCounter++) {
+                int adjacentAreaId = adjacentAreas[adjacentCounter];
+                // areas that were removed or already marked are not searched again
+                if (!isBitSet(existingAreas, adjacentAreaId) || isBitSet(reachableAreas, adjacentAreaId))
+                {
+                    continue;
+                }
+                markBit(reachableAreas, adjacentAreaId);
+                reachedFrom[adjacentAreaId] = currentAreaId;
+                if (queueEnd == areasToCheck.length)
+                {
+                    areasToCheck = Arrays.copyOf(areasToCheck, areasToCheck.length * 2);
+                }
+                areasToCheck[queueEnd++] = adjacentAreaId;
+            }
+        }
+    }
+
+    // ---------------- DIRECTION HELPERS ----------------
+
+    // the areas the searches move on to from the given area
+    private int[] getNextAreas(int areaId) {
+        return backwards ? connections.getIncomingConnections(areaId) : connections.getConnections(areaId);
+    }
+
+    // the position in getNextAreas(areaId) of the first of those areas
+    private int getNextAreasStart(int areaId) {
+        return backwards ? connections.getIncomingConnectionsStart(areaId) : 0;
+    }
+
+    private int getNrNextAreas(int areaId) {
+        return backwards ? connections.getNrIncomingConnections(areaId) : connections.getNrConnections(areaId);
+    }
+
+    // the areas the searches could have come from to reach the given area
+    private int[] getPreviousAreas(int areaId) {
+        return backwards ? connections.getConnections(areaId) : connections.getIncomingConnections(areaId);
+    }
+
+    private int getPreviousAreasStart(int areaId) {
+        return backwards ? 0 : connections.getIncomingConnectionsStart(areaId);
+    }
+
+    private int getNrPreviousAreas(int areaId) {
+        return backwards ? connections.getNrConnections(areaId) : connections.getNrIncomingConnections(areaId);
+    }
+
+    // ---------------- BITSET HELPERS ----------------
+
+    private static boolean isBitSet(long[] bits, int index) {
+        return (index >> 6) < bits.length && (bits[index >> 6] & (1L << index)) != 0;
+    }
+
+    private static void markBit(long[] bits, int index) {
+        bits[index >> 6] |= 1L << index;
+    }
+
+    private static void clearBit(long[] bits, int index) {
+        if ((index >> 6) < bits.length)
+        {
+            bits[index >> 6] &= ~(1L << index);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package zoo;
+
+import animals.Animal;
+
+/** this class is one result of an animal search: an animal, and the ID of the area it lives in */
+public class AnimalLocation {
+
+    private final int areaId;
+    private final Animal animal;
+
+    // Constructor
+    public AnimalLocation(int areaId, Animal animal) {
+        this.areaId = areaId;
+        this.animal = animal;
+    }
+
+    /**
+     * @return the ID of the habitat the animal lives in
+     */
+    public int getAreaId() {
+        return areaId;
+    }
+
+    /**
+     * @return the animal found
+     */
+    public Animal getAnimal() {
+        return animal;
+    }
+
+}
@@ -0,0 +1,363 @@
+package zoo;
+
+import dataStructures.AreaConnections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** this class works out how many visitors can move from the entrance to a set of exit areas at the same time
+ * every connection (and optionally every area) is given a throughput capacity, e.g. visitors per hour
+ * the maximum flow is found with Dinic's algorithm on primitive arrays
+ * the minimum cut then tells which connections (or areas) limit the throughput, and are worth widening
+ */
+public class CapacityPlanner {
+
+    // used for capacities that do not limit the flow
+    private static final long UNLIMITED = Long.MAX_VALUE / 4;
+    // marks areas and connections that were not given their own capacity, since capacities are never negative
+    private static final int NO_CAPACITY = -1;
+
+    private Zoo zoo;
+    // the capacity of every connection that was not given its own
+    private int defaultConnectionCapacity;
+    // the connections given their own capacity, indexed by the ID of the area they start from,
+    // each as the ID of the area it leads to followed by its capacity, null for areas with none
+    private int[][] connectionCapacities = new int[16][];
+    private int[] nrConnectionCapacities = new int[16];
+    // the capacity of every area, indexed by area ID, NO_CAPACITY for the areas that do not limit the flow
+    private int[] areaCapacities = newCapacities(16);
+
+    // ---- the flow network, rebuilt by every call to findMaxFlow ----
+    // every edge is stored next to its reverse edge (e and e ^ 1)
+    private int nrNodes;
+    private int nrEdges;
+    private int[] firstEdge;
+    private int[] nextEdge;
+    private int[] edgeTo;
+    private long[] edgeCapacity;
+    // what every forward edge stands for: a connection (from, to), an area (area, area), or the sink (-1, -1)
+    private int[] edgeFromArea;
+    private int[] edgeToArea;
+    private int sourceNode;
+    private int sinkNode;
+    private int[] level;
+
+    // Constructor, a negative capacity is rejected with an IllegalArgumentException
+    public CapacityPlanner(Zoo zoo, int defaultConnectionCapacity) {
+        checkNotNegative(defaultConnectionCapacity, "capacity");
+        this.zoo = zoo;
+        this.defaultConnectionCapacity = defaultConnectionCapacity;
+    }
+
+    /**
+     * @param fromAreaId the ID of the area the connection starts from
+     * @param toAreaId the ID of the area the connection leads to
+     * @param capacity the number of visitors the connection lets through
+     * @throws IllegalArgumentException if the capacity or either area ID is negative
+     */
+    public void setConnectionCapacity(int fromAreaId, int toAreaId, int capacity) {
+        checkNotNegative(capacity, "capacity");
+        checkNotNegative(fromAreaId, "area ID");
+        checkNotNegative(toAreaId, "area ID");
+        if (fromAreaId >= connectionCapacities.length)
+        {
+            int newLength = Math.max(connectionCapacities.length * 2, fromAreaId + 1);
+            connectionCapacities = Arrays.copyOf(connectionCapacities, newLength);
+            nrConnectionCapacities = Arrays.copyOf(nrConnectionCapacities, newLength);
+        }
+        int[] capacities = connectionCapacities[fromAreaId];
+        int size = nrConnectionCapacities[fromAreaId];
+        // a connection given a capacity again keeps only the new one
+        for (int position = 0; position < size; position += 2) {
+            if (capacities[position] == toAreaId)
+            {
+                capacities[position + 1] = capacity;
+                return;
+            }
+        }
+        if (capacities == null || size == capacities.length)
+        {
+            capacities = capacities == null ? new int[4] : Arrays.copyOf(capacities, size * 2);
+            connectionCapacities[fromAreaId] = capacities;
+        }
+        capacities[size] = toAreaId;
+        capacities[size + 1] = capacity;
+        nrConnectionCapacities[fromAreaId] = size + 2;
+    }
+
+    /**
+     * @param areaId the ID of the area
+     * @param capacity the number of visitors that can pass through the area
+     * @throws IllegalArgumentException if the capacity or the area ID is negative
+     */
+    public void setAreaCapacity(int areaId, int capacity) {
+        checkNotNegative(capacity, "capacity");
+        checkNotNegative(areaId, "area ID");
+        if (areaId >= areaCapacities.length)
+        {
+            int[] newAreaCapacities = newCapacities(Math.max(areaCapacities.length * 2, areaId + 1));
+            System.arraycopy(areaCapacities, 0, newAreaCapacities, 0, areaCapacities.length);
+            areaCapacities = newAreaCapacities;
+        }
+        areaCapacities[areaId] = capacity;
+    }
+
+    /**
+     * this method finds the maximum number of visitors that can move from the entrance to the exit areas
+     * the entrance itself is ignored if it is one of the exits
+     * @param exitAreaIds the IDs of the areas visitors leave the zoo from
+     * @return the maximum flow of visitors
+     */
+    public long findMaxFlow(int[] exitAreaIds) {
+        buildNetwork(exitAreaIds);
+        long maxFlow = 0;
+        int[] currentEdge = new int[nrNodes];
+        int[] pathEdges = new int[nrNodes];
+        while (buildLevels()) {
+            System.arraycopy(firstEdge, 0, currentEdge, 0, nrNodes);
+            maxFlow += sendBlockingFlow(currentEdge, pathEdges);
+        }
+        return maxFlow;
+    }
+
+    /**
+     * this method lists the connections that limit the flow found by the last call to findMaxFlow
+     * @return the connections of the minimum cut, each as {fromAreaId, toAreaId}
+     */
+    public ArrayList<int[]> getMinCutConnections() {
+        ArrayList<int[]> cutConnections = new ArrayList<>();
+        boolean[] sourceSide = findSourceSide();
+        for (int edge = 0; edge < nrEdges; edge += 2) {
+            if (isCutEdge(edge, sourceSide) && edgeFromArea[edge >> 1] != edgeToArea[edge >> 1])
+            {
+                cutConnections.add(new int[] { edgeFromArea[edge >> 1], edgeToArea[edge >> 1] });
+            }
+        }
+        return cutConnections;
+    }
+
+    /**
+     * this method lists the areas that limit the flow found by the last call to findMaxFlow
+     * @return the IDs of the areas of the minimum cut
+     */
+    public ArrayList<Integer> getMinCutAreas() {
+        ArrayList<Integer> cutAreas = new ArrayList<>();
+        boolean[] sourceSide = findSourceSide();
+        for (int edge = 0; edge < nrEdges; edge += 2) {
+            if (isCutEdge(edge, sourceSide) && edgeFromArea[edge >> 1] == edgeToArea[edge >> 1] && edgeFromArea[edge >> 1] != -1)
+            {
+                cutAreas.add(edgeFromArea[edge >> 1]);
+            }
+        }
+        return cutAreas;
+    }
+
+    // ---------------- NETWORK ----------------
+
+    /**
+     * this method builds the flow network from the zoo's connections
+     * an area with a capacity is split into an entry node and an exit node joined by an edge of that capacity
+     * @param exitAreaIds the IDs of the areas joined to the sink
+     */
+    private void buildNetwork(int[] exitAreaIds) {
+        AreaConnections connections = zoo.getAreaConnections();
+        int nrAreaIds = zoo.getHighestAreaId() + 1;
+        // the node visitors leave every area from, the same as the node they enter it by unless the area is split
+        int[] exitNode = new int[nrAreaIds];
+        nrNodes = nrAreaIds;
+        for (int areaId = 0; areaId < nrAreaIds; areaId++) {
+            exitNode[areaId] = getAreaCapacity(areaId) != NO_CAPACITY && zoo.getArea(areaId) != null ? nrNodes++ : areaId;
+        }
+        int nrSplitAreas = nrNodes - nrAreaIds;
+        sourceNode = 0;
+        sinkNode = nrNodes++;
+        int maxEdges = 0;
+        for (int areaId = 0; areaId < nrAreaIds; areaId++) {
+            maxEdges += connections.getNrConnections(areaId);
+        }
+        maxEdges = 2 * (maxEdges + nrSplitAreas + exitAreaIds.length);
+        firstEdge = new int[nrNodes];
+        Arrays.fill(firstEdge, -1);
+        nextEdge = new int[maxEdges];
+        edgeTo = new int[maxEdges];
+        edgeCapacity = new long[maxEdges];
+        edgeFromArea = new int[maxEdges / 2];
+        edgeToArea = new int[maxEdges / 2];
+        nrEdges = 0;
+        // the capacities given to the connections of one area at a time, indexed by the ID of the area they lead to
+        int[] capacityTo = newCapacities(nrAreaIds);
+        for (int areaId = 0; areaId < nrAreaIds; areaId++) {
+            if (exitNode[areaId] != areaId)
+            {
+                addEdge(areaId, exitNode[areaId], areaCapacities[areaId], areaId, areaId);
+            }
+            int[] capacities = areaId < connectionCapacities.length ? connectionCapacities[areaId] : null;
+            int nrCapacities = capacities == null ? 0 : nrConnectionCapacities[areaId];
+            for (int position = 0; position < nrCapacities; position += 2) {
+                if (capacities[position] < nrAreaIds)
+                {
+                    capacityTo[capacities[position]] = capacities[position + 1];
+                }
+            }
+            int[] adjacentAreas = connections.getConnections(areaId);
+            for (int adjacentCounter = 0; adjacentCounter < connections.getNrConnections(areaId); adjacentCounter++) {
+                int adjacentAreaId = adjacentAreas[adjacentCounter];
+                int capacity = capacityTo[adjacentAreaId];
+                addEdge(exitNode[areaId], adjacentAreaId, capacity == NO_CAPACITY ? defaultConnectionCapacity : capacity, areaId, adjacentAreaId);
+            }
+            // cleared again, so the next area starts from no capacities without clearing the whole array
+            for (int position = 0; position < nrCapacities; position += 2) {
+                if (capacities[position] < nrAreaIds)
+                {
+                    capacityTo[capacities[position]] = NO_CAPACITY;
+                }
+            }
+        }
+        for (int exitAreaId : exitAreaIds) {
+            if (exitAreaId > 0 && exitAreaId < nrAreaIds && zoo.getArea(exitAreaId) != null)
+            {
+                addEdge(exitNode[exitAreaId], sinkNode, UNLIMITED, -1, -1);
+            }
+        }
+        level = new int[nrNodes];
+    }
+
+    private int getAreaCapacity(int areaId) {
+        return areaId < areaCapacities.length ? areaCapacities[areaId] : NO_CAPACITY;
+    }
+
+    private static int[] newCapacities(int length) {
+        int[] capacities = new int[length];
+        Arrays.fill(capacities, NO_CAPACITY);
+        return capacities;
+    }
+
+    private static void checkNotNegative(int value, String name) {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("Negative " + name + ": " + value);
+        }
+    }
+
+    private void addEdge(int fromNode, int toNode, long capacity, int fromAreaId, int toAreaId) {
+        edgeFromArea[nrEdges >> 1] = fromAreaId;
+        edgeToArea[nrEdges >> 1] = toAreaId;
+        edgeTo[nrEdges] = toNode;
+        edgeCapacity[nrEdges] = capacity;
+        nextEdge[nrEdges] = firstEdge[fromNode];
+        firstEdge[fromNode] = nrEdges++;
+        // the reverse edge starts empty, and gains capacity as flow is sent along the forward edge
+        edgeTo[nrEdges] = fromNode;
+        edgeCapacity[nrEdges] = 0;
+        nextEdge[nrEdges] = firstEdge[toNode];
+        firstEdge[toNode] = nrEdges++;
+    }
+
+    // ---------------- DINIC'S ALGORITHM ----------------
+
+    /**
+     * this method numbers every node by its distance from the source, using only edges with capacity left
+     * @return true if the sink can still be reached
+     */
+    private boolean buildLevels() {
+        Arrays.fill(level, -1);
+        int[] nodesToCheck = new int[nrNodes];
+        int queueStart = 0;
+        int queueEnd = 0;
+        level[sourceNode] = 0;
+        nodesToCheck[queueEnd++] = sourceNode;
+        while (queueStart < queueEnd) {
+            int node = nodesToCheck[queueStart++];
+            for (int edge = firstEdge[node]; edge != -1; edge = nextEdge[edge]) {
+                if (edgeCapacity[edge] > 0 && level[edgeTo[edge]] == -1)
+                {
+                    level[edgeTo[edge]] = level[node] + 1;
+                    nodesToCheck[queueEnd++] = edgeTo[edge];
+                }
+            }
+        }
+        return level[sinkNode] != -1;
+    }
+
+    /**
+     * this method keeps sending flow along paths that go one level further at every step, until none are left
+     * the search uses its own stack of edges, and currentEdge remembers which edges of every node were used up
+     * @return the total flow sent
+     */
+    private long sendBlockingFlow(int[] currentEdge, int[] pathEdges) {
+        long totalFlow = 0;
+        int pathLength = 0;
+        int node = sourceNode;
+        while (true) {
+            if (node == sinkNode)
+            {
+                // send as much as the narrowest edge of the path allows, then start again from the source
+                long pathFlow = UNLIMITED;
+                for (int pathCounter = 0; pathCounter < pathLength; pathCounter++) {
+                    pathFlow = Math.min(pathFlow, edgeCapacity[pathEdges[pathCounter]]);
+                }
+                for (int pathCounter = 0; pathCounter < pathLength; pathCounter++) {
+                    edgeCapacity[pathEdges[pathCounter]] -= pathFlow;
+                    edgeCapacity[pathEdges[pathCounter] ^ 1] += pathFlow;
+                }
+                totalFlow += pathFlow;
+                pathLength = 0;
+                node = sourceNode;
+                continue;
+            }
+            // skip the edges of this node that cannot be used
+            int edge = currentEdge[node];
+            while (edge != -1 && (edgeCapacity[edge] == 0 || level[edgeTo[edge]] != level[node] + 1)) {
+                edge = nextEdge[edge];
+            }
+            currentEdge[node] = edge;
+            if (edge != -1)
+            {
+                pathEdges[pathLength++] = edge;
+                node = edgeTo[edge];
+            }
+            else
+            {
+                // a dead end: never visit this node again in this phase, and step back
+                level[node] = -1;
+                if (pathLength == 0)
+                {
+                    return totalFlow;
+                }
+                int previousEdge = pathEdges[--pathLength];
+                node = edgeTo[previousEdge ^ 1];
+                currentEdge[node] = nextEdge[previousEdge];
+            }
+        }
+    }
+
+    // the nodes that can still be reached from the source after the maximum flow was sent
+    private boolean[] findSourceSide() {
+        boolean[] sourceSide = new boolean[nrNodes];
+        if (firstEdge == null)
+        {
+            return sourceSide;
+        }
+        int[] nodesToCheck = new int[nrNodes];
+        int queueEnd = 0;
+        sourceSide[sourceNode] = true;
+        nodesToCheck[queueEnd++] = sourceNode;
+        for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+            int node = nodesToCheck[queueStart];
+            for (int edge = firstEdge[node]; edge != -1; edge = nextEdge[edge]) {
+                if (edgeCapacity[edge] > 0 && !sourceSide[edgeTo[edge]])
+                {
+                    sourceSide[edgeTo[edge]] = true;
+                    nodesToCheck[queueEnd++] = edgeTo[edge];
+                }
+            }
+        }
+        return sourceSide;
+    }
+
+    // a forward edge crosses the cut if it leads from the source side to the other side
+    private boolean isCutEdge(int edge, boolean[] sourceSide) {
+        return sourceSide[edgeTo[edge ^ 1]] && !sourceSide[edgeTo[edge]];
+    }
+
+}
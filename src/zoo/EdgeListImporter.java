@@ -0,0 +1,298 @@
+package zoo;
+
+import areas.IArea;
+import areas.PicnicArea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/** this class builds a zoo from a large list of connections (an edge list), such as a CAD export of the park
+ * the file is streamed through a FileChannel and parsed by hand, straight into an array of packed connections (from << 32 | to)
+ * the connections are then sorted, their duplicates dropped, and all of them added to the zoo in one pass
+ *
+ * the area IDs in the file become the area IDs of the zoo, and 0 is the entrance
+ * every other ID used by a connection gets an area from the area factory, and unused IDs are left empty like removed areas
+ *
+ * text files hold one connection per line, as two area IDs separated by spaces, tabs or a comma
+ * everything after a # is a comment, and empty lines are skipped
+ * binary files hold the connections as pairs of big-endian ints, with nothing in between
+ */
+public class EdgeListImporter {
+
+    // the size of the buffer the file is read through
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    // makes the area for every area ID other than the entrance
+    private IntFunction<IArea> areaFactory;
+
+    // the connections read so far, packed as (from << 32 | to)
+    private long[] packedConnections;
+    private int nrConnectionsRead;
+    private int highestAreaId;
+
+    // ---- the figures of the last import ----
+    private int nrConnectionsImported;
+    private int nrAreasImported;
+    private long importNanos;
+
+    // Constructor, every area other than the entrance is a picnic area
+    public EdgeListImporter() {
+        this(areaId -> new PicnicArea());
+    }
+
+    // Constructor, the factory must make a new area (other than an entrance) every time it is called
+    public EdgeListImporter(IntFunction<IArea> areaFactory) {
+        this.areaFactory = areaFactory;
+    }
+
+    /**
+     * this method builds a zoo from a text edge list
+     * @param path the file to read
+     * @return a new zoo holding the areas and connections of the file
+     * @throws IOException if the file cannot be read or a line is not a connection
+     * @throws IllegalStateException if the zoo does not accept an area made by the area factory
+     */
+    public Zoo importText(Path path) throws IOException {
+        long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // a short line ("1 2\n") takes 4 bytes, so this is a generous first guess
+            startReading(channel.size() / 8);
+            readText(channel);
+        }
+        return buildZoo(startTime);
+    }
+
+    /**
+     * this method builds a zoo from a binary edge list
+     * @param path the file to read
+     * @return a new zoo holding the areas and connections of the file
+     * @throws IOException if the file cannot be read, ends in the middle of a connection or holds a negative area ID
+     * @throws IllegalStateException if the zoo does not accept an area made by the area factory
+     */
+    public Zoo importBinary(Path path) throws IOException {
+        long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            startReading(channel.size() / 8);
+            readBinary(channel);
+        }
+        return buildZoo(startTime);
+    }
+
+    /**
+     * @return the number of connections read by the last import, duplicates included
+     */
+    public int getNrConnectionsRead() {
+        return nrConnectionsRead;
+    }
+
+    /**
+     * @return the number of connections the last import added to the zoo
+     */
+    public int getNrConnectionsImported() {
+        return nrConnectionsImported;
+    }
+
+    /**
+     * @return the number of areas the last import added to the zoo, the entrance not included
+     */
+    public int getNrAreasImported() {
+        return nrAreasImported;
+    }
+
+    /**
+     * @return the time the last import took, in milliseconds
+     */
+    public long getImportMillis() {
+        return importNanos / 1_000_000L;
+    }
+
+    /**
+     * @return the number of connections read per second by the last import
+     */
+    public double getConnectionsPerSecond() {
+        return importNanos == 0 ? 0 : nrConnectionsRead * 1e9 / importNanos;
+    }
+
+    // ---------------- READING ----------------
+
+    private void startReading(long expectedNrConnections) {
+        packedConnections = new long[(int) Math.max(16, Math.min(expectedNrConnections, Integer.MAX_VALUE - 8))];
+        nrConnectionsRead = 0;
+        highestAreaId = 0;
+    }
+
+    /**
+     * this method parses the text one byte at a time, keeping its state between buffers
+     * so a number split between two reads is still read correctly
+     */
+    private void readText(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long lineNumber = 1;
+        // the number being read, -1 between numbers
+        long number = -1;
+        // the area IDs found on the current line
+        int nrNumbersOnLine = 0;
+        int fromAreaId = 0;
+        boolean inComment = false;
+        int nrBytes;
+        while ((nrBytes = channel.read(buffer)) != -1) {
+            for (int byteCounter = 0; byteCounter < nrBytes; byteCounter++) {
+                byte character = bytes[byteCounter];
+                if (inComment)
+                {
+                    if (character == '\n')
+                    {
+                        inComment = false;
+                        checkLineEnd(nrNumbersOnLine, lineNumber++);
+                        nrNumbersOnLine = 0;
+                    }
+                }
+                else if (character >= '0' && character <= '9')
+                {
+                    number = (number == -1 ? 0 : number * 10) + (character - '0');
+                    if (number > Integer.MAX_VALUE)
+                    {
+                        throw new IOException("Area ID too large on line " + lineNumber);
+                    }
+                }
+                else
+                {
+                    // anything other than a digit ends the number being read
+                    if (number != -1)
+                    {
+                        if (nrNumbersOnLine == 0)
+                        {
+                            fromAreaId = (int) number;
+                        }
+                        else if (nrNumbersOnLine == 1)
+                        {
+                            addConnection(fromAreaId, (int) number);
+                        }
+                        else
+                        {
+                            throw new IOException("More than two area IDs on line " + lineNumber);
+                        }
+                        nrNumbersOnLine++;
+                        number = -1;
+                    }
+                    if (character == '\n')
+                    {
+                        checkLineEnd(nrNumbersOnLine, lineNumber++);
+                        nrNumbersOnLine = 0;
+                    }
+                    else if (character == '#')
+                    {
+                        inComment = true;
+                    }
+                    else if (character != ' ' && character != '\t' && character != '\r' && character != ',')
+                    {
+                        throw new IOException("Unexpected character '" + (char) character + "' on line " + lineNumber);
+                    }
+                }
+            }
+            buffer.clear();
+        }
+        // the last line may not end with a line break
+        if (number != -1)
+        {
+            if (nrNumbersOnLine != 1)
+            {
+                throw new IOException("Expected two area IDs on line " + lineNumber);
+            }
+            addConnection(fromAreaId, (int) number);
+        }
+        else
+        {
+            checkLineEnd(nrNumbersOnLine, lineNumber);
+        }
+    }
+
+    // a line must hold a whole connection, or nothing at all
+    private static void checkLineEnd(int nrNumbersOnLine, long lineNumber) throws IOException {
+        if (nrNumbersOnLine == 1)
+        {
+            throw new IOException("Expected two area IDs on line " + lineNumber);
+        }
+    }
+
+    private void readBinary(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.remaining() >= 8) {
+                int fromAreaId = buffer.getInt();
+                int toAreaId = buffer.getInt();
+                if (fromAreaId < 0 || toAreaId < 0)
+                {
+                    throw new IOException("Negative area ID in connection " + (nrConnectionsRead + 1));
+                }
+                addConnection(fromAreaId, toAreaId);
+            }
+            // a connection split between two reads is finished by the next one
+            buffer.compact();
+        }
+        if (buffer.position() != 0)
+        {
+            throw new IOException("The file ends in the middle of a connection");
+        }
+    }
+
+    private void addConnection(int fromAreaId, int toAreaId) {
+        if (nrConnectionsRead == packedConnections.length)
+        {
+            packedConnections = Arrays.copyOf(packedConnections, (int) Math.min((long) packedConnections.length * 2, Integer.MAX_VALUE - 8));
+        }
+        packedConnections[nrConnectionsRead++] = ((long) fromAreaId << 32) | toAreaId;
+        highestAreaId = Math.max(highestAreaId, Math.max(fromAreaId, toAreaId));
+    }
+
+    // ---------------- BUILDING ----------------
+
+    private Zoo buildZoo(long startTime) {
+        // sorting puts duplicate connections next to each other, and the connections of every area together
+        Arrays.parallelSort(packedConnections, 0, nrConnectionsRead);
+        int nrUniqueConnections = 0;
+        // the IDs used by any connection
+        long[] usedAreaIds = new long[(highestAreaId >> 6) + 1];
+        for (int connectionCounter = 0; connectionCounter < nrConnectionsRead; connectionCounter++) {
+            long connection = packedConnections[connectionCounter];
+            if (nrUniqueConnections == 0 || packedConnections[nrUniqueConnections - 1] != connection)
+            {
+                packedConnections[nrUniqueConnections++] = connection;
+                int fromAreaId = (int) (connection >>> 32);
+                int toAreaId = (int) connection;
+                usedAreaIds[fromAreaId >> 6] |= 1L << fromAreaId;
+                usedAreaIds[toAreaId >> 6] |= 1L << toAreaId;
+            }
+        }
+        Zoo zoo = new Zoo();
+        nrAreasImported = 0;
+        for (int areaId = 1; areaId <= highestAreaId; areaId++) {
+            if ((usedAreaIds[areaId >> 6] & (1L << areaId)) != 0)
+            {
+                // an entrance, or an area the factory made before, is not added, which would shift every later ID
+                int addedAreaId = zoo.addArea(areaFactory.apply(areaId));
+                if (addedAreaId != areaId)
+                {
+                    throw new IllegalStateException("The area made for area ID " + areaId + " was not added to the zoo");
+                }
+                nrAreasImported++;
+            }
+            else
+            {
+                zoo.skipAreaId();
+            }
+        }
+        nrConnectionsImported = zoo.connectAreasInBulk(packedConnections, nrUniqueConnections);
+        packedConnections = null;
+        importNanos = System.nanoTime() - startTime;
+        return zoo;
+    }
+
+}
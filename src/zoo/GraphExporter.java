@@ -0,0 +1,266 @@
+package zoo;
+
+import areas.Habitats;
+import areas.IArea;
+import dataStructures.AreaConnections;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** this class writes the areas and connections of a zoo to a file in DOT, GraphML or CSV format
+ * the areas and connections are written straight from the zoo to a buffered file channel, one at a time,
+ * so the memory used stays the same however large the zoo is
+ * every area is written with its type, and every habitat also with its capacity and number of inhabitants
+ * the export can be limited to the areas that cannot be reached from the entrance, or to those with no way back to it,
+ * together with the connections between them
+ */
+public class GraphExporter {
+
+    // the areas that can be exported
+    public static final byte ALL_AREAS = 0;
+    public static final byte UNREACHABLE_AREAS = 1;
+    public static final byte TRAPPED_AREAS = 2;
+
+    // the size of the buffer the file is written through
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private Zoo zoo;
+    private byte areasToExport;
+
+    // Constructor, every area is exported
+    public GraphExporter(Zoo zoo) {
+        this(zoo, ALL_AREAS);
+    }
+
+    /**
+     * @param zoo the zoo to export
+     * @param areasToExport ALL_AREAS, UNREACHABLE_AREAS or TRAPPED_AREAS
+     */
+    public GraphExporter(Zoo zoo, byte areasToExport) {
+        this.zoo = zoo;
+        this.areasToExport = areasToExport;
+    }
+
+    /**
+     * this method writes the zoo as a Graphviz digraph
+     * @param path the file to write, replaced if it already exists
+     * @throws IOException if the file cannot be written
+     */
+    public void exportDot(Path path) throws IOException {
+        try (Writer writer = openWriter(path)) {
+            writer.write("digraph zoo {\n");
+            writeAreas((areaId, area) -> {
+                writer.write("  " + areaId + " [label=\"" + areaId + " " + escapeDot(area.getClass().getSimpleName()));
+                if (area instanceof Habitats)
+                {
+                    Habitats habitat = (Habitats) area;
+                    writer.write(" " + habitat.getNrInhabitants() + "/" + habitat.getCapacity());
+                }
+                writer.write("\"];\n");
+            });
+            writeConnections((fromAreaId, toAreaId) -> writer.write("  " + fromAreaId + " -> " + toAreaId + ";\n"));
+            writer.write("}\n");
+        }
+    }
+
+    /**
+     * this method writes the zoo as a GraphML document, with the type, capacity and occupancy as node data
+     * @param path the file to write, replaced if it already exists
+     * @throws IOException if the file cannot be written
+     */
+    public void exportGraphMl(Path path) throws IOException {
+        try (Writer writer = openWriter(path)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+            writer.write("  <key id=\"type\" for=\"node\" attr.name=\"type\" attr.type=\"string\"/>\n");
+            writer.write("  <key id=\"capacity\" for=\"node\" attr.name=\"capacity\" attr.type=\"int\"/>\n");
+            writer.write("  <key id=\"occupancy\" for=\"node\" attr.name=\"occupancy\" attr.type=\"int\"/>\n");
+            writer.write("  <graph id=\"zoo\" edgedefault=\"directed\">\n");
+            writeAreas((areaId, area) -> {
+                writer.write("    <node id=\"a" + areaId + "\"><data key=\"type\">" + escapeXml(area.getClass().getSimpleName()) + "</data>");
+                if (area instanceof Habitats)
+                {
+                    Habitats habitat = (Habitats) area;
+                    writer.write("<data key=\"capacity\">" + habitat.getCapacity() + "</data>");
+                    writer.write("<data key=\"occupancy\">" + habitat.getNrInhabitants() + "</data>");
+                }
+                writer.write("</node>\n");
+            });
+            writeConnections((fromAreaId, toAreaId) -> writer.write("    <edge source=\"a" + fromAreaId + "\" target=\"a" + toAreaId + "\"/>\n"));
+            writer.write("  </graph>\n");
+            writer.write("</graphml>\n");
+        }
+    }
+
+    /**
+     * this method writes the areas and the connections to two CSV files, each starting with a header line
+     * the capacity and occupancy are left empty for areas that are not habitats
+     * @param areasPath the file to write the areas to (id,type,capacity,occupancy)
+     * @param connectionsPath the file to write the connections to (from,to)
+     * @throws IOException if the files cannot be written
+     */
+    public void exportCsv(Path areasPath, Path connectionsPath) throws IOException {
+        try (Writer writer = openWriter(areasPath)) {
+            writer.write("id,type,capacity,occupancy\n");
+            writeAreas((areaId, area) -> {
+                writer.write(areaId + "," + escapeCsv(area.getClass().getSimpleName()) + ",");
+                if (area instanceof Habitats)
+                {
+                    Habitats habitat = (Habitats) area;
+                    writer.write(habitat.getCapacity() + "," + habitat.getNrInhabitants());
+                }
+                else
+                {
+                    writer.write(",");
+                }
+                writer.write("\n");
+            });
+        }
+        try (Writer writer = openWriter(connectionsPath)) {
+            writer.write("from,to\n");
+            writeConnections((fromAreaId, toAreaId) -> writer.write(fromAreaId + "," + toAreaId + "\n"));
+        }
+    }
+
+    // ---------------- TRAVERSAL ----------------
+
+    /** writes one area in the format of the export */
+    private interface AreaWriter {
+        void write(int areaId, IArea area) throws IOException;
+    }
+
+    /** writes one connection in the format of the export */
+    private interface ConnectionWriter {
+        void write(int fromAreaId, int toAreaId) throws IOException;
+    }
+
+    // hands every exported area to the area writer, in order of ID
+    private void writeAreas(AreaWriter areaWriter) throws IOException {
+        for (int areaId = 0; areaId <= zoo.getHighestAreaId(); areaId++) {
+            if (isExported(areaId))
+            {
+                areaWriter.write(areaId, zoo.getArea(areaId));
+            }
+        }
+    }
+
+    // hands every connection between two exported areas to the connection writer, grouped by the area it starts from
+    private void writeConnections(ConnectionWriter connectionWriter) throws IOException {
+        AreaConnections connections = zoo.getAreaConnections();
+        for (int areaId = 0; areaId <= zoo.getHighestAreaId(); areaId++) {
+            if (isExported(areaId))
+            {
+                int[] adjacentAreas = connections.getConnections(areaId);
+                for (int adjacentCounter = 0; adjacentCounter < connections.getNrConnections(areaId); adjacentCounter++) {
+                    if (isExported(adjacentAreas[adjacentCounter]))
+                    {
+                        connectionWriter.write(areaId, adjacentAreas[adjacentCounter]);
+                    }
+                }
+            }
+        }
+    }
+
+    // checks whether an area exists and belongs to the areas being exported
+    private boolean isExported(int areaId) {
+        if (zoo.getArea(areaId) == null)
+        {
+            return false;
+        }
+        switch (areasToExport) {
+            case UNREACHABLE_AREAS:
+                return !zoo.isReachableFromEntrance(areaId);
+            case TRAPPED_AREAS:
+                return !zoo.leadsToEntrance(areaId);
+            default:
+                return true;
+        }
+    }
+
+    // ---------------- LABELS ----------------
+
+    /**
+     * this method escapes text for a double-quoted DOT string, where a backslash starts an escape sequence
+     * @param text the text to escape
+     * @return the text with every backslash, double quote and line break escaped
+     */
+    static String escapeDot(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int charCounter = 0; charCounter < text.length(); charCounter++) {
+            char character = text.charAt(charCounter);
+            if (character == '\\' || character == '"')
+            {
+                escaped.append('\\').append(character);
+            }
+            else if (character == '\n')
+            {
+                escaped.append("\\n");
+            }
+            else if (character != '\r')
+            {
+                escaped.append(character);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * this method escapes text for the content or an attribute value of an XML element
+     * @param text the text to escape
+     * @return the text with the five characters XML reserves replaced by their entities
+     */
+    static String escapeXml(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int charCounter = 0; charCounter < text.length(); charCounter++) {
+            char character = text.charAt(charCounter);
+            switch (character) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                case '\'':
+                    escaped.append("&apos;");
+                    break;
+                default:
+                    escaped.append(character);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * this method quotes a CSV field if it holds a comma, a double quote or a line break, doubling its double quotes
+     * @param text the field
+     * @return the field as it is written to the file
+     */
+    static String escapeCsv(String text) {
+        for (int charCounter = 0; charCounter < text.length(); charCounter++) {
+            char character = text.charAt(charCounter);
+            if (character == ',' || character == '"' || character == '\n' || character == '\r')
+            {
+                return "\"" + text.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return text;
+    }
+
+    private static Writer openWriter(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+}
@@ -0,0 +1,385 @@
+package zoo;
+
+import animals.Animal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** this class finds animals by nickname, or by the start of their nickname, without looking through every habitat
+ * the animals are split over NR_STRIPES tries by the hash of their nickname, each with its own lock,
+ * so threads adding animals with different nicknames seldom wait for each other
+ * all animals with the same nickname are in the same trie, so a nickname is looked up in one trie,
+ * while a prefix is looked up in every trie and the results are merged
+ */
+class NicknameIndex {
+
+    // the number of tries, a power of two
+    private static final int NR_STRIPES = 16;
+
+    private final Trie[] tries = new Trie[NR_STRIPES];
+
+    NicknameIndex() {
+        for (int stripe = 0; stripe < NR_STRIPES; stripe++) {
+            tries[stripe] = new Trie();
+        }
+    }
+
+    /**
+     * this method adds an animal to the index
+     * @param areaId the ID of the habitat the animal lives in
+     * @param animal the animal
+     */
+    void add(int areaId, Animal animal) {
+        Trie trie = getTrie(animal.getNickname());
+        synchronized (trie) {
+            trie.add(areaId, animal);
+        }
+    }
+
+    /**
+     * this method removes an animal from the index
+     * @param areaId the ID of the habitat the animal was added to
+     * @param animal the animal, which must have been added to that habitat (compared by identity)
+     */
+    void remove(int areaId, Animal animal) {
+        Trie trie = getTrie(animal.getNickname());
+        synchronized (trie) {
+            trie.remove(areaId, animal);
+        }
+    }
+
+    /**
+     * @param nickname the nickname to look for
+     * @return every animal with exactly that nickname, in the order they were added
+     */
+    ArrayList<AnimalLocation> find(String nickname) {
+        ArrayList<AnimalLocation> locations = new ArrayList<>();
+        Trie trie = getTrie(nickname);
+        synchronized (trie) {
+            trie.find(nickname, locations);
+        }
+        return locations;
+    }
+
+    /**
+     * this method finds the animals whose nickname starts with the given prefix, in alphabetical order of nickname
+     * every trie gives its first animals in order, and the lists are merged by nickname
+     * the tries are searched one after the other, so animals added meanwhile may be found in some tries and not others
+     * @param prefix the start of the nickname
+     * @param maxResults the maximum number of animals returned
+     * @return the animals found
+     */
+    ArrayList<AnimalLocation> findByPrefix(String prefix, int maxResults) {
+        ArrayList<ArrayList<AnimalLocation>> trieLocations = new ArrayList<>(NR_STRIPES);
+        for (Trie trie : tries) {
+            ArrayList<AnimalLocation> locations = new ArrayList<>();
+            synchronized (trie) {
+                trie.findByPrefix(prefix, maxResults, locations);
+            }
+            if (!locations.isEmpty())
+            {
+                trieLocations.add(locations);
+            }
+        }
+        if (trieLocations.size() <= 1)
+        {
+            return trieLocations.isEmpty() ? new ArrayList<>() : trieLocations.get(0);
+        }
+        // animals with the same nickname are in the same trie, so taking the smallest nickname first keeps them in order
+        ArrayList<AnimalLocation> locations = new ArrayList<>();
+        int[] nextLocation = new int[trieLocations.size()];
+        while (locations.size() < maxResults) {
+            int smallestTrie = -1;
+            String smallestNickname = null;
+            for (int trieCounter = 0; trieCounter < trieLocations.size(); trieCounter++) {
+                if (nextLocation[trieCounter] < trieLocations.get(trieCounter).size())
+                {
+                    String nickname = trieLocations.get(trieCounter).get(nextLocation[trieCounter]).getAnimal().getNickname();
+                    if (smallestTrie == -1 || nickname.compareTo(smallestNickname) < 0)
+                    {
+                        smallestTrie = trieCounter;
+                        smallestNickname = nickname;
+                    }
+                }
+            }
+            if (smallestTrie == -1)
+            {
+                break;
+            }
+            locations.add(trieLocations.get(smallestTrie).get(nextLocation[smallestTrie]++));
+        }
+        return locations;
+    }
+
+    private Trie getTrie(String nickname) {
+        int hash = nickname.hashCode();
+        return tries[(hash ^ (hash >>> 16)) & (NR_STRIPES - 1)];
+    }
+
+    /** a trie stored in plain arrays: every node is one character, and its children are kept in sorted arrays,
+     * so a child is found by binary search and the children are visited in alphabetical order
+     * every node also holds the animals whose nickname ends there, as a linked list of entries,
+     * and counts the animals below it; a node whose count drops to zero is taken out of the trie and reused
+     * the caller holds the trie's lock
+     */
+    private static class Trie {
+
+        private static final int NONE = -1;
+
+        // ---- the nodes, node 0 is the root (the empty nickname), with a list of free nodes so removed nodes are reused ----
+        private int nrNodes = 1;
+        // the characters of the children of every node, in increasing order, and the children themselves
+        private char[][] childCharacters = new char[64][];
+        private int[][] children = new int[64][];
+        private int[] nrChildren = new int[64];
+        // the first and last entries of the animals whose nickname ends at the node
+        // a free node is linked to the next free node through its first entry, since it has no entries
+        private int[] firstEntry = newLinks(64);
+        private int[] lastEntry = newLinks(64);
+        // the number of animals whose nickname ends at the node or below it, only the root can be zero
+        private int[] nrAnimalsBelow = new int[64];
+        private int firstFreeNode = NONE;
+
+        // ---- the entries, with a list of free entries so removed entries are reused ----
+        private int nrEntries = 0;
+        private int[] entryAreaId = new int[64];
+        private Animal[] entryAnimal = new Animal[64];
+        private int[] nextEntry = newLinks(64);
+        private int firstFreeEntry = NONE;
+
+        private void add(int areaId, Animal animal) {
+            String nickname = animal.getNickname();
+            int node = 0;
+            nrAnimalsBelow[0]++;
+            for (int characterCounter = 0; characterCounter < nickname.length(); characterCounter++) {
+                node = findOrAddChild(node, nickname.charAt(characterCounter));
+                nrAnimalsBelow[node]++;
+            }
+            int entry = newEntry();
+            entryAreaId[entry] = areaId;
+            entryAnimal[entry] = animal;
+            nextEntry[entry] = NONE;
+            // entries are kept in the order they were added
+            if (firstEntry[node] == NONE)
+            {
+                firstEntry[node] = entry;
+            }
+            else
+            {
+                nextEntry[lastEntry[node]] = entry;
+            }
+            lastEntry[node] = entry;
+        }
+
+        private void remove(int areaId, Animal animal) {
+            String nickname = animal.getNickname();
+            // the nodes along the nickname, so the counts can be lowered without searching again
+            int[] path = new int[nickname.length() + 1];
+            for (int characterCounter = 0; characterCounter < nickname.length(); characterCounter++) {
+                path[characterCounter + 1] = findChild(path[characterCounter], nickname.charAt(characterCounter));
+                if (path[characterCounter + 1] == NONE)
+                {
+                    return;
+                }
+            }
+            int node = path[nickname.length()];
+            int previousEntry = NONE;
+            for (int entry = firstEntry[node]; entry != NONE; entry = nextEntry[entry]) {
+                if (entryAnimal[entry] == animal && entryAreaId[entry] == areaId)
+                {
+                    if (previousEntry == NONE)
+                    {
+                        firstEntry[node] = nextEntry[entry];
+                    }
+                    else
+                    {
+                        nextEntry[previousEntry] = nextEntry[entry];
+                    }
+                    if (lastEntry[node] == entry)
+                    {
+                        lastEntry[node] = previousEntry;
+                    }
+                    entryAnimal[entry] = null;
+                    nextEntry[entry] = firstFreeEntry;
+                    firstFreeEntry = entry;
+                    // the counts along the nickname's path go down by one, and the first node left without animals
+                    // is taken out of its parent, along with the nodes below it on the path, which are empty too
+                    nrAnimalsBelow[0]--;
+                    for (int characterCounter = 0; characterCounter < nickname.length(); characterCounter++) {
+                        if (--nrAnimalsBelow[path[characterCounter + 1]] == 0)
+                        {
+                            removeChild(path[characterCounter], nickname.charAt(characterCounter));
+                            for (int freedCounter = characterCounter + 1; freedCounter <= nickname.length(); freedCounter++) {
+                                freeNode(path[freedCounter]);
+                            }
+                            return;
+                        }
+                    }
+                    return;
+                }
+                previousEntry = entry;
+            }
+        }
+
+        private void find(String nickname, ArrayList<AnimalLocation> locations) {
+            int node = findNode(nickname);
+            if (node != NONE)
+            {
+                for (int entry = firstEntry[node]; entry != NONE; entry = nextEntry[entry]) {
+                    locations.add(new AnimalLocation(entryAreaId[entry], entryAnimal[entry]));
+                }
+            }
+        }
+
+        // only nodes with animals below them are in the trie, so the time taken depends on the prefix and results, not the trie
+        private void findByPrefix(String prefix, int maxResults, ArrayList<AnimalLocation> locations) {
+            int prefixNode = findNode(prefix);
+            if (prefixNode == NONE || nrAnimalsBelow[prefixNode] == 0)
+            {
+                return;
+            }
+            // a depth-first search with its own stack, visiting every node's own animals before its children
+            int[] nodesToVisit = new int[16];
+            int stackSize = 0;
+            nodesToVisit[stackSize++] = prefixNode;
+            while (stackSize > 0 && locations.size() < maxResults) {
+                int node = nodesToVisit[--stackSize];
+                for (int entry = firstEntry[node]; entry != NONE && locations.size() < maxResults; entry = nextEntry[entry]) {
+                    locations.add(new AnimalLocation(entryAreaId[entry], entryAnimal[entry]));
+                }
+                // the children are pushed last one first, so they are visited in order
+                if (stackSize + nrChildren[node] > nodesToVisit.length)
+                {
+                    nodesToVisit = Arrays.copyOf(nodesToVisit, Math.max(stackSize * 2, stackSize + nrChildren[node]));
+                }
+                for (int childCounter = nrChildren[node] - 1; childCounter >= 0; childCounter--) {
+                    nodesToVisit[stackSize++] = children[node][childCounter];
+                }
+            }
+        }
+
+        // ---------------- NODES ----------------
+
+        // follows the characters of the text from the root, returns NONE if the trie does not hold it
+        private int findNode(String text) {
+            int node = 0;
+            for (int characterCounter = 0; characterCounter < text.length() && node != NONE; characterCounter++) {
+                node = findChild(node, text.charAt(characterCounter));
+            }
+            return node;
+        }
+
+        private int findChild(int node, char character) {
+            int position = findChildPosition(node, character);
+            return position >= 0 ? children[node][position] : NONE;
+        }
+
+        // returns the position of the character among the node's children, or (-(insertion point) - 1) if it has none
+        private int findChildPosition(int node, char character) {
+            return nrChildren[node] == 0 ? -1 : Arrays.binarySearch(childCharacters[node], 0, nrChildren[node], character);
+        }
+
+        // finds the child of the node for the character, adding it in its sorted place if there is none yet
+        private int findOrAddChild(int node, char character) {
+            int position = findChildPosition(node, character);
+            if (position >= 0)
+            {
+                return children[node][position];
+            }
+            position = -position - 1;
+            int newNode = newNode();
+            int size = nrChildren[node];
+            if (size == 0)
+            {
+                childCharacters[node] = new char[2];
+                children[node] = new int[2];
+            }
+            else if (size == children[node].length)
+            {
+                childCharacters[node] = Arrays.copyOf(childCharacters[node], size * 2);
+                children[node] = Arrays.copyOf(children[node], size * 2);
+            }
+            System.arraycopy(childCharacters[node], position, childCharacters[node], position + 1, size - position);
+            System.arraycopy(children[node], position, children[node], position + 1, size - position);
+            childCharacters[node][position] = character;
+            children[node][position] = newNode;
+            nrChildren[node]++;
+            return newNode;
+        }
+
+        private void removeChild(int node, char character) {
+            int position = findChildPosition(node, character);
+            int size = --nrChildren[node];
+            System.arraycopy(childCharacters[node], position + 1, childCharacters[node], position, size - position);
+            System.arraycopy(children[node], position + 1, children[node], position, size - position);
+            if (size == 0)
+            {
+                childCharacters[node] = null;
+                children[node] = null;
+            }
+        }
+
+        private int newNode() {
+            if (firstFreeNode != NONE)
+            {
+                int node = firstFreeNode;
+                firstFreeNode = firstEntry[node];
+                firstEntry[node] = NONE;
+                return node;
+            }
+            if (nrNodes == nrChildren.length)
+            {
+                int newLength = nrNodes * 2;
+                childCharacters = Arrays.copyOf(childCharacters, newLength);
+                children = Arrays.copyOf(children, newLength);
+                nrChildren = Arrays.copyOf(nrChildren, newLength);
+                firstEntry = growLinks(firstEntry, newLength);
+                lastEntry = growLinks(lastEntry, newLength);
+                nrAnimalsBelow = Arrays.copyOf(nrAnimalsBelow, newLength);
+            }
+            return nrNodes++;
+        }
+
+        // a freed node has no animals, so it has no entries, and its only child was freed with it
+        private void freeNode(int node) {
+            childCharacters[node] = null;
+            children[node] = null;
+            nrChildren[node] = 0;
+            lastEntry[node] = NONE;
+            firstEntry[node] = firstFreeNode;
+            firstFreeNode = node;
+        }
+
+        private int newEntry() {
+            if (firstFreeEntry != NONE)
+            {
+                int entry = firstFreeEntry;
+                firstFreeEntry = nextEntry[entry];
+                return entry;
+            }
+            if (nrEntries == entryAreaId.length)
+            {
+                int newLength = nrEntries * 2;
+                entryAreaId = Arrays.copyOf(entryAreaId, newLength);
+                entryAnimal = Arrays.copyOf(entryAnimal, newLength);
+                nextEntry = growLinks(nextEntry, newLength);
+            }
+            return nrEntries++;
+        }
+
+        private static int[] newLinks(int length) {
+            int[] links = new int[length];
+            Arrays.fill(links, NONE);
+            return links;
+        }
+
+        private static int[] growLinks(int[] links, int newLength) {
+            int oldLength = links.length;
+            links = Arrays.copyOf(links, newLength);
+            Arrays.fill(links, oldLength, newLength, NONE);
+            return links;
+        }
+
+    }
+
+}
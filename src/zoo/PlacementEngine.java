@@ -0,0 +1,358 @@
+package zoo;
+
+import animals.Animal;
+import areas.Areas;
+import areas.Habitats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/** this class finds habitats for a batch of animals, placing as many of them as possible
+ * it treats the problem as bin packing: every habitat is a bin with its free space as size,
+ * and can only be filled from one group of species that can all live together (and with its current inhabitants)
+ *
+ * the animals are counted per species, so a plan only says how many animals of every species go to every habitat
+ * plans are built greedily, filling every habitat from the group with the most animals left,
+ * first in a fixed order (the largest habitats first) and then in random orders, in parallel until the time budget runs out
+ * the plan is applied while holding the locks of the habitats it uses, and only if none of them changed during the search,
+ * otherwise the search is run again on the new state
+ * if the habitats keep changing, a last plan is made while holding the locks of every habitat, so it always succeeds
+ * that plan only tries the fixed order, so the locks are held for one pass over the habitats, not for a time budget
+ * the animals go through the same checks as addAnimal, so the zoo never holds part of a plan that no longer fits
+ * animals of an unknown species are left for addAnimal, since only the species with an ID can be planned for
+ */
+class PlacementEngine {
+
+    // the number of searches made without holding any lock, before the last plan that is made holding them all
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * for every area kind, the groups of species that can all live together in that kind of habitat,
+     * each as a bitmask of species (1 << species ID)
+     * only the largest groups are kept, since a habitat can always hold fewer species than its group
+     */
+    private static final int[][] SPECIES_GROUPS = new int[Areas.NR_KINDS][];
+    // the number of groups every species is part of, so species with fewer choices are placed first
+    private static final int[] NR_GROUPS_OF_SPECIES = new int[Animal.NR_SPECIES];
+    // the species IDs, in the order they are used to fill a habitat
+    private static final int[] FILL_ORDER = new int[Animal.NR_SPECIES];
+    static {
+        for (int areaKind = 0; areaKind < Areas.NR_KINDS; areaKind++) {
+            ArrayList<Integer> groups = new ArrayList<>();
+            for (int group = 1; group < 1 << Animal.NR_SPECIES; group++) {
+                if (isGroup(group, areaKind) && !hasLargerGroup(group, areaKind))
+                {
+                    groups.add(group);
+                    for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+                        if ((group & (1 << speciesId)) != 0)
+                        {
+                            NR_GROUPS_OF_SPECIES[speciesId]++;
+                        }
+                    }
+                }
+            }
+            SPECIES_GROUPS[areaKind] = groups.stream().mapToInt(Integer::intValue).toArray();
+        }
+        Integer[] fillOrder = new Integer[Animal.NR_SPECIES];
+        for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+            fillOrder[speciesId] = speciesId;
+        }
+        Arrays.sort(fillOrder, (first, second) -> NR_GROUPS_OF_SPECIES[first] - NR_GROUPS_OF_SPECIES[second]);
+        for (int orderCounter = 0; orderCounter < Animal.NR_SPECIES; orderCounter++) {
+            FILL_ORDER[orderCounter] = fillOrder[orderCounter];
+        }
+    }
+
+    // checks that every species of the group lives in the given kind of habitat, and that they can all live together
+    private static boolean isGroup(int group, int areaKind) {
+        for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+            if ((group & (1 << speciesId)) != 0
+                    && (Animal.getHabitatKind(speciesId) != areaKind || (Animal.getCompatibleSpecies(speciesId) & group) != group))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasLargerGroup(int group, int areaKind) {
+        for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+            if ((group & (1 << speciesId)) == 0 && isGroup(group | (1 << speciesId), areaKind))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** the best plan found by one search thread */
+    private static class Plan {
+        // the number of animals of every species that go to every habitat, at [habitat * NR_SPECIES + species]
+        private final int[] placed;
+        private final int nrPlaced;
+
+        private Plan(int[] placed, int nrPlaced) {
+            this.placed = placed;
+            this.nrPlaced = nrPlaced;
+        }
+    }
+
+    private Zoo zoo;
+
+    // ---- the habitats, as they were when the search started ----
+    private int nrHabitats;
+    private int[] habitatAreaIds;
+    private int[] habitatKinds;
+    private int[] freeSpace;
+    // the species every inhabitant of the habitat can live with
+    private int[] compatibleSpecies;
+    private int[] inhabitantsVersions;
+    // the habitat indices, largest free space first
+    private int[] largestFirst;
+
+    // the number of animals of every species waiting to be placed
+    private int[] animalsPerSpecies;
+
+    PlacementEngine(Zoo zoo) {
+        this.zoo = zoo;
+    }
+
+    /**
+     * this method finds habitats for the animals and adds them there
+     * @param animals the animals to place
+     * @param timeBudgetMillis the time after which the best plan found so far is used
+     * @return for every animal, the ID of the area it was added to, or -1 if it could not be placed
+     */
+    int[] placeAnimals(List<Animal> animals, long timeBudgetMillis) {
+        animalsPerSpecies = new int[Animal.NR_SPECIES];
+        for (Animal animal : animals) {
+            if (animal.getSpeciesId() != Animal.UNKNOWN_SPECIES)
+            {
+                animalsPerSpecies[animal.getSpeciesId()]++;
+            }
+        }
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            readHabitats();
+            Plan bestPlan = search(timeBudgetMillis);
+            int[] placedAreaIds = zoo.withHabitatLocks(getUsedAreaIds(bestPlan),
+                    () -> haveHabitatsChanged(bestPlan) ? null : apply(bestPlan, animals));
+            if (placedAreaIds != null)
+            {
+                return placedAreaIds;
+            }
+        }
+        // animals were added to the habitats during every search, so this plan keeps them from changing until it is applied
+        // it is only built in the fixed order, which takes one pass over the habitats rather than the time budget
+        return zoo.withAllHabitatLocks(() -> {
+            readHabitats();
+            return apply(buildPlan(largestFirst, null), animals);
+        });
+    }
+
+    // takes a copy of the state of every habitat that still has space
+    private void readHabitats() {
+        int highestAreaId = zoo.getHighestAreaId();
+        habitatAreaIds = new int[highestAreaId + 1];
+        habitatKinds = new int[highestAreaId + 1];
+        freeSpace = new int[highestAreaId + 1];
+        compatibleSpecies = new int[highestAreaId + 1];
+        inhabitantsVersions = new int[highestAreaId + 1];
+        nrHabitats = 0;
+        for (int areaId = 1; areaId <= highestAreaId; areaId++) {
+            if (zoo.getArea(areaId) instanceof Habitats)
+            {
+                Habitats habitat = (Habitats) zoo.getArea(areaId);
+                // read before the inhabitants, so an animal added meanwhile raises the version the plan is checked against
+                int inhabitantsVersion = habitat.getInhabitantsVersion();
+                int habitatFreeSpace = habitat.getCapacity() - habitat.getNrInhabitants();
+                if (habitatFreeSpace > 0)
+                {
+                    habitatAreaIds[nrHabitats] = areaId;
+                    habitatKinds[nrHabitats] = habitat.getAreaKind();
+                    freeSpace[nrHabitats] = habitatFreeSpace;
+                    compatibleSpecies[nrHabitats] = habitat.getCompatibleSpecies();
+                    inhabitantsVersions[nrHabitats] = inhabitantsVersion;
+                    nrHabitats++;
+                }
+            }
+        }
+        largestFirst = IntStream.range(0, nrHabitats).boxed()
+                .sorted((first, second) -> freeSpace[second] - freeSpace[first])
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * this method runs the search on every available core until the time budget is used up
+     * the first thread starts with the fixed order, so there is always at least one plan
+     * the other threads find no plan if the time budget is used up before they start
+     * @return the plan that places the most animals
+     */
+    private Plan search(long timeBudgetMillis) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        int nrThreads = Runtime.getRuntime().availableProcessors();
+        return IntStream.range(0, nrThreads).parallel()
+                .mapToObj(thread -> searchThread(thread, deadline))
+                .filter(Objects::nonNull)
+                .reduce((first, second) -> second.nrPlaced > first.nrPlaced ? second : first)
+                .get();
+    }
+
+    private Plan searchThread(int thread, long deadline) {
+        SplittableRandom random = new SplittableRandom(thread);
+        int[] order = largestFirst.clone();
+        Plan bestPlan = null;
+        if (thread == 0)
+        {
+            bestPlan = buildPlan(order, null);
+        }
+        int totalAnimals = Arrays.stream(animalsPerSpecies).sum();
+        while (System.nanoTime() < deadline && (bestPlan == null || bestPlan.nrPlaced < totalAnimals)) {
+            // shuffle the habitats, then build a plan in that order
+            for (int orderCounter = order.length - 1; orderCounter > 0; orderCounter--) {
+                int swapIndex = random.nextInt(orderCounter + 1);
+                int swappedHabitat = order[orderCounter];
+                order[orderCounter] = order[swapIndex];
+                order[swapIndex] = swappedHabitat;
+            }
+            Plan plan = buildPlan(order, random);
+            if (bestPlan == null || plan.nrPlaced > bestPlan.nrPlaced)
+            {
+                bestPlan = plan;
+            }
+        }
+        return bestPlan;
+    }
+
+    /**
+     * this method fills the habitats one at a time, in the given order
+     * every habitat is filled from the group of species with the most animals left
+     * (or, with a random generator, sometimes from another group, to try other plans)
+     * @param order the habitat indices, in the order they are filled
+     * @param random used to vary the choice of group, or null to always take the best one
+     * @return the plan
+     */
+    private Plan buildPlan(int[] order, SplittableRandom random) {
+        int[] remaining = animalsPerSpecies.clone();
+        int[] placed = new int[nrHabitats * Animal.NR_SPECIES];
+        int nrPlaced = 0;
+        for (int habitat : order) {
+            int bestSpecies = 0;
+            int bestAvailable = 0;
+            for (int group : SPECIES_GROUPS[habitatKinds[habitat]]) {
+                // the species of the group the current inhabitants can live with
+                int usableSpecies = group & compatibleSpecies[habitat];
+                int available = 0;
+                for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+                    if ((usableSpecies & (1 << speciesId)) != 0)
+                    {
+                        available += remaining[speciesId];
+                    }
+                }
+                boolean better = available > bestAvailable;
+                if (random != null && available > 0 && random.nextInt(4) == 0)
+                {
+                    better = !better;
+                }
+                if (better || bestAvailable == 0)
+                {
+                    bestSpecies = usableSpecies;
+                    bestAvailable = available;
+                }
+            }
+            int space = freeSpace[habitat];
+            for (int orderCounter = 0; orderCounter < Animal.NR_SPECIES && space > 0; orderCounter++) {
+                int speciesId = FILL_ORDER[orderCounter];
+                if ((bestSpecies & (1 << speciesId)) != 0 && remaining[speciesId] > 0)
+                {
+                    int nrAnimals = Math.min(space, remaining[speciesId]);
+                    placed[habitat * Animal.NR_SPECIES + speciesId] = nrAnimals;
+                    remaining[speciesId] -= nrAnimals;
+                    space -= nrAnimals;
+                    nrPlaced += nrAnimals;
+                }
+            }
+        }
+        return new Plan(placed, nrPlaced);
+    }
+
+    // checks whether any habitat the plan uses was changed since the search started
+    private boolean haveHabitatsChanged(Plan plan) {
+        for (int habitat = 0; habitat < nrHabitats; habitat++) {
+            if (isUsed(plan, habitat) && ((Habitats) zoo.getArea(habitatAreaIds[habitat])).getInhabitantsVersion() != inhabitantsVersions[habitat])
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // returns the area IDs of the habitats the plan adds animals to
+    private int[] getUsedAreaIds(Plan plan) {
+        return IntStream.range(0, nrHabitats).filter(habitat -> isUsed(plan, habitat)).map(habitat -> habitatAreaIds[habitat]).toArray();
+    }
+
+    private static boolean isUsed(Plan plan, int habitat) {
+        for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+            if (plan.placed[habitat * Animal.NR_SPECIES + speciesId] > 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * this method adds the animals to the habitats of the plan, one batch per habitat
+     * it is called while holding the locks of the habitats, so the plan still fits them
+     * the animals of every species are handed out in the order they were given
+     * @return for every animal, the ID of the area it was added to, or -1
+     */
+    private int[] apply(Plan plan, List<Animal> animals) {
+        int[] placedAreaIds = new int[animals.size()];
+        Arrays.fill(placedAreaIds, -1);
+        // the animals of every species, as indices into the list
+        int[][] animalsBySpecies = new int[Animal.NR_SPECIES][];
+        int[] nextAnimal = new int[Animal.NR_SPECIES];
+        for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+            animalsBySpecies[speciesId] = new int[animalsPerSpecies[speciesId]];
+        }
+        int animalCounter = 0;
+        for (Animal animal : animals) {
+            int speciesId = animal.getSpeciesId();
+            if (speciesId != Animal.UNKNOWN_SPECIES)
+            {
+                animalsBySpecies[speciesId][nextAnimal[speciesId]++] = animalCounter;
+            }
+            animalCounter++;
+        }
+        Arrays.fill(nextAnimal, 0);
+        ArrayList<Animal> batch = new ArrayList<>();
+        int[] batchIndices = new int[animals.size()];
+        for (int habitat = 0; habitat < nrHabitats; habitat++) {
+            batch.clear();
+            for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+                for (int placedCounter = 0; placedCounter < plan.placed[habitat * Animal.NR_SPECIES + speciesId]; placedCounter++) {
+                    int animalIndex = animalsBySpecies[speciesId][nextAnimal[speciesId]++];
+                    batchIndices[batch.size()] = animalIndex;
+                    batch.add(animals.get(animalIndex));
+                }
+            }
+            if (!batch.isEmpty())
+            {
+                byte[] results = zoo.addAnimals(habitatAreaIds[habitat], batch);
+                for (int batchCounter = 0; batchCounter < results.length; batchCounter++) {
+                    if (results[batchCounter] == Codes.ANIMAL_ADDED)
+                    {
+                        placedAreaIds[batchIndices[batchCounter]] = habitatAreaIds[habitat];
+                    }
+                }
+            }
+        }
+        return placedAreaIds;
+    }
+
+}
@@ -0,0 +1,158 @@
+package zoo;
+
+import areas.Habitats;
+import dataStructures.AreaConnections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** this class looks for a tour from the entrance that shows visitors as many animals as possible in a limited number of steps
+ * it uses a beam search: every step, all the best partial tours so far are extended by one area (in parallel),
+ * and only the best beamWidth of the new tours are kept
+ * tours that end in the same area having visited the same areas have seen the same animals and can go on the same way,
+ * so only one of them is kept, and the search stops early once the time budget is used up
+ * every tour in the beam holds the areas it visited as a bitset, so checking an area takes the same time however long the tour
+ */
+class TourPlanner {
+
+    /** one step of a partial tour, linked to the step before it */
+    private static class TourStep {
+        private final int areaId;
+        private final TourStep previous;
+        // the number of animals seen on the tour up to and including this step
+        private final int animalsSeen;
+        private final int nrSteps;
+        // the areas the tour went through, one bit per area ID, only kept while the tour is in the beam
+        private long[] visitedAreas;
+
+        private TourStep(int areaId, TourStep previous, int animalsSeen, int nrSteps) {
+            this.areaId = areaId;
+            this.previous = previous;
+            this.animalsSeen = animalsSeen;
+            this.nrSteps = nrSteps;
+        }
+
+        // checks whether the tour already went through the given area, so its animals are not counted twice
+        private boolean hasVisited(int visitedAreaId) {
+            return (visitedAreas[visitedAreaId >> 6] & (1L << visitedAreaId)) != 0;
+        }
+    }
+
+    /** the end area and visited areas of a tour, which decide everything the tour can still go on to see */
+    private static class TourState {
+        private final int areaId;
+        private final long[] visitedAreas;
+
+        private TourState(TourStep tour) {
+            this.areaId = tour.areaId;
+            this.visitedAreas = tour.visitedAreas;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TourState && ((TourState) other).areaId == areaId
+                    && Arrays.equals(((TourState) other).visitedAreas, visitedAreas);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * areaId + Arrays.hashCode(visitedAreas);
+        }
+    }
+
+    private AreaConnections connections;
+    // the number of animals living in every area
+    private int[] animalsPerArea;
+
+    TourPlanner(Zoo zoo) {
+        this.connections = zoo.getAreaConnections();
+        int nrAreaIds = zoo.getHighestAreaId() + 1;
+        this.animalsPerArea = new int[nrAreaIds];
+        for (int areaId = 0; areaId < nrAreaIds; areaId++) {
+            if (zoo.getArea(areaId) instanceof Habitats)
+            {
+                animalsPerArea[areaId] = ((Habitats) zoo.getArea(areaId)).getNrInhabitants();
+            }
+        }
+    }
+
+    /**
+     * this method searches for the tour
+     * @param maxSteps the maximum number of moves from one area to the next
+     * @param beamWidth the number of partial tours kept after every step
+     * @param timeBudgetMillis the time after which the best tour found so far is returned
+     * @return the area IDs of the best tour found, starting at the entrance
+     */
+    ArrayList<Integer> findBestTour(int maxSteps, int beamWidth, long timeBudgetMillis) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        TourStep bestTour = new TourStep(0, null, animalsPerArea[0], 0);
+        bestTour.visitedAreas = new long[(animalsPerArea.length + 63) >> 6];
+        bestTour.visitedAreas[0] = 1L;
+        List<TourStep> beam = Collections.singletonList(bestTour);
+        // the states of the tours kept for the current step
+        HashSet<TourState> keptStates = new HashSet<>();
+        for (int stepCounter = 0; stepCounter < maxSteps && !beam.isEmpty() && System.nanoTime() < deadline; stepCounter++) {
+            List<TourStep> extendedTours = beam.parallelStream()
+                    .flatMap(tour -> extend(tour).stream())
+                    .sorted(Comparator.comparingInt((TourStep tour) -> tour.animalsSeen).reversed())
+                    .collect(Collectors.toList());
+            keptStates.clear();
+            List<TourStep> nextBeam = new ArrayList<>(beamWidth);
+            for (TourStep tour : extendedTours) {
+                if (nextBeam.size() == beamWidth)
+                {
+                    break;
+                }
+                // a tour that went back to an area it had seen shares the bitset of the tour before it
+                tour.visitedAreas = tour.previous.visitedAreas;
+                if (!tour.previous.hasVisited(tour.areaId))
+                {
+                    tour.visitedAreas = tour.visitedAreas.clone();
+                    tour.visitedAreas[tour.areaId >> 6] |= 1L << tour.areaId;
+                }
+                if (keptStates.add(new TourState(tour)))
+                {
+                    nextBeam.add(tour);
+                }
+                else
+                {
+                    tour.visitedAreas = null;
+                }
+            }
+            // the tours that left the beam are only needed to rebuild the best tour, not their bitsets
+            for (TourStep tour : beam) {
+                tour.visitedAreas = null;
+            }
+            // a longer tour only replaces the best one if it shows more animals
+            if (!nextBeam.isEmpty() && nextBeam.get(0).animalsSeen > bestTour.animalsSeen)
+            {
+                bestTour = nextBeam.get(0);
+            }
+            beam = nextBeam;
+        }
+        Integer[] tourAreaIds = new Integer[bestTour.nrSteps + 1];
+        for (TourStep step = bestTour; step != null; step = step.previous) {
+            tourAreaIds[step.nrSteps] = step.areaId;
+        }
+        return new ArrayList<>(Arrays.asList(tourAreaIds));
+    }
+
+    // all the tours one step longer than the given one
+    private List<TourStep> extend(TourStep tour) {
+        int[] adjacentAreas = connections.getConnections(tour.areaId);
+        int nrAdjacentAreas = connections.getNrConnections(tour.areaId);
+        List<TourStep> extendedTours = new ArrayList<>(nrAdjacentAreas);
+        for (int adjacentCounter = 0; adjacentCounter < nrAdjacentAreas; adjacentCounter++) {
+            int adjacentAreaId = adjacentAreas[adjacentCounter];
+            int newAnimals = tour.hasVisited(adjacentAreaId) ? 0 : animalsPerArea[adjacentAreaId];
+            extendedTours.add(new TourStep(adjacentAreaId, tour, tour.animalsSeen + newAnimals, tour.nrSteps + 1));
+        }
+        return extendedTours;
+    }
+
+}
@@ -2,32 +2,120 @@ package zoo;
 
 import animals.*;
 import areas.*;
+import dataStructures.AreaConnections;
 import dataStructures.CashCount;
 import dataStructures.ICashCount;
-
+import dataStructures.ParallelAreaSearch;
+import dataStructures.ReachabilityIndex;
+import dataStructures.ReachableAreas;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 
 public class Zoo implements IZoo {
 
     /**
-    the hashmap is used to keep track of all the added areas and their respective IDs
+    this array is used to keep track of all the added areas, indexed by their IDs
+    a removed area leaves an empty (null) slot, since IDs are never reused
     the entrance was already added
     since there can only be one entrance and to avoid having no entrance
      */
-    private HashMap<Integer, IArea> zooAreas = new HashMap<>() {{ put(0, new areas.Entrance());}};
+    private IArea[] zooAreas = new IArea[] { new areas.Entrance() };
+    /**
+     * this map is the reverse of zooAreas, mapping every added area to its ID
+     * it is keyed by identity so checking whether an area was already added takes constant time
+     */
+    private IdentityHashMap<IArea, Integer> areaIds = new IdentityHashMap<>() {{ put(zooAreas[0], 0);}};
     /** this variable is used to generate a unique ID for every area of the zoo
      * exception to the entrance, which has an ID of 0 and there is only one
      */
     private int areaID = 0;
     /**
-     * this hashmap stores all the area IDs
+     * this object stores all the area IDs
      * of the areas that can be reached from any certain area
-     * uses the area ID as a key, with a corresponding list of all the IDs of reachable areas
-     * from that original area
+     * it is the only copy of the connections, the areas read their adjacent areas from it
+     * it also checks whether one area leads directly to another in constant time, which keeps out duplicate connections
      */
-    private HashMap<Integer, ArrayList<Integer>> areaConnections = new HashMap<>() {{ put(0, new ArrayList<>());}};
+    private AreaConnections areaConnections = new AreaConnections() {{ addArea(0);}};
+    /**
+     * this table holds the first check of adding an animal, indexed by species ID and area kind:
+     * NOT_A_HABITAT, WRONG_HABITAT, or ANIMAL_ADDED if the area is the right habitat for the species
+     */
+    private static final byte[][] ADMISSION = new byte[Animal.NR_SPECIES][Areas.NR_KINDS];
+    static {
+        for (int speciesId = 0; speciesId < Animal.NR_SPECIES; speciesId++) {
+            Arrays.fill(ADMISSION[speciesId], Codes.WRONG_HABITAT);
+            ADMISSION[speciesId][Areas.ENTRANCE] = Codes.NOT_A_HABITAT;
+            ADMISSION[speciesId][Areas.PICNIC_AREA] = Codes.NOT_A_HABITAT;
+            ADMISSION[speciesId][Animal.getHabitatKind(speciesId)] = Codes.ANIMAL_ADDED;
+        }
+    }
+    /**
+     * these locks guard the capacity check, compatibility check and insert of addAnimal, so animals can be added from several threads
+     * every habitat uses the lock picked by its area ID (lock striping), so adding to different habitats rarely waits
+     */
+    private static final int NR_HABITAT_LOCKS = 64;
+    private final Object[] habitatLocks = new Object[NR_HABITAT_LOCKS];
+    {
+        for (int lockCounter = 0; lockCounter < NR_HABITAT_LOCKS; lockCounter++) {
+            habitatLocks[lockCounter] = new Object();
+        }
+    }
+    /**
+     * this object keeps track of the areas that can be reached from the entrance
+     * it is updated by addArea, removeArea and connectAreas, so finding the unreachable areas
+     * does not need to search the whole zoo every time
+     */
+    private ReachableAreas reachableAreas = new ReachableAreas(areaConnections, 0);
+    /**
+     * this object keeps track of the areas the entrance can be reached from, by following the connections backwards
+     * it is updated the same way, so finding the areas visitors would be trapped in is just as cheap
+     */
+    private ReachableAreas exitAreas = new ReachableAreas(areaConnections, 0, true);
+    /**
+     * this number changes every time a connection is added or removed
+     * it is used to tell when indexes built from the connections are outdated
+     */
+    private int connectionsVersion = 0;
+    /**
+     * this index answers whether any area can be reached from any other area
+     * it is only built when needed, and built again when the connections changed since (see connectionsVersion)
+     */
+    private ReachabilityIndex reachabilityIndex;
+    private int reachabilityIndexVersion;
+    /**
+     * this map caches the shortest-route trees of the most recently used starting areas
+     * every tree stores, for every area ID, the area it is first reached from (-1 if it cannot be reached)
+     * the least recently used tree is dropped once more than ROUTE_CACHE_SIZE are cached,
+     * and all of them are dropped when the connections change (see connectionsVersion)
+     */
+    private static final int ROUTE_CACHE_SIZE = 64;
+    private LinkedHashMap<Integer, int[]> routeTrees = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+            return size() > ROUTE_CACHE_SIZE;
+        }
+    };
+    private int routeTreesVersion;
+    /**
+     * this index finds animals by nickname, or by the start of their nickname
+     * it is updated by addAnimal, addAnimals and removeArea, so a search never looks through the habitats
+     */
+    private NicknameIndex nicknameIndex = new NicknameIndex();
     /**
      * this string is used to store the entrance fee
      * accommodates for the fact that the fee can't be a double
@@ -39,10 +127,15 @@ public class Zoo implements IZoo {
      * used to stock up and retrieve the cash supply
      */
     private CashCount ticketMachine = new CashCount();
+    /**
+     * this journal records every change made to the zoo, so it can be rebuilt after a crash
+     * it is only used by zoos opened with openJournal, and is null otherwise
+     */
+    private ZooJournal journal;
 
     // Constructor
     public Zoo() {
-
+        ((Areas) zooAreas[0]).setZooConnections(areaConnections, 0);
     }
 
 
@@ -63,7 +156,7 @@ public class Zoo implements IZoo {
             return 0;
         }
         // if the area already exists, reject adding it again
-        else if (zooAreas.containsValue(area))
+        else if (areaIds.containsKey(area))
         {
             System.out.println("Area already exists");
             return -1;
@@ -71,10 +164,26 @@ public class Zoo implements IZoo {
         // if the area is not an entrance, and does not exist already
         // then it can be added as normal
         areaID++;
-        zooAreas.put(areaID, area);
+        // grow the area table when it runs out of slots (doubling keeps adding areas amortised constant time)
+        if (areaID == zooAreas.length)
+        {
+            zooAreas = Arrays.copyOf(zooAreas, zooAreas.length * 2);
+        }
+        zooAreas[areaID] = area;
+        areaIds.put(area, areaID);
         // also, the area is added to the areaConnections, with an empty list of connections
         // which can later be updated based on the paths that are unblocked
-        areaConnections.put(areaID, new ArrayList<>());
+        areaConnections.addArea(areaID);
+        reachableAreas.areaAdded(areaID);
+        exitAreas.areaAdded(areaID);
+        if (area instanceof Areas)
+        {
+            ((Areas) area).setZooConnections(areaConnections, areaID);
+        }
+        if (journal != null)
+        {
+            waitForJournal(journal.recordAreaAdded(area));
+        }
         return areaID;
     }
 
@@ -91,10 +200,35 @@ public class Zoo implements IZoo {
         }
         // if the area ID is not the one for an entrance, the area is discarded
         // and all its connections are removed
-        else
+        else if (getArea(areaId) != null)
         {
-            zooAreas.remove(areaId);
-            areaConnections.remove(areaId);
+            IArea removedArea = zooAreas[areaId];
+            areaIds.remove(removedArea);
+            // the animals of a removed habitat can no longer be found
+            // the habitat's lock is held, as in admitAnimal, so the index and the inhabitants are changed in the same order
+            if (removedArea instanceof Habitats)
+            {
+                synchronized (habitatLocks[areaId & (NR_HABITAT_LOCKS - 1)]) {
+                    for (Animal inhabitant : ((Habitats) removedArea).getInhabitants()) {
+                        nicknameIndex.remove(areaId, inhabitant);
+                    }
+                }
+            }
+            zooAreas[areaId] = null;
+            // the reachable areas are updated first, since they need the connections of the removed area
+            reachableAreas.areaRemoved(areaId);
+            exitAreas.areaRemoved(areaId);
+            // every connection into and out of the removed area is discarded, so no other area leads to it anymore
+            areaConnections.removeArea(areaId);
+            connectionsVersion++;
+            if (removedArea instanceof Areas)
+            {
+                ((Areas) removedArea).setZooConnections(null, 0);
+            }
+            if (journal != null)
+            {
+                waitForJournal(journal.recordAreaRemoved(areaId));
+            }
         }
     }
 
@@ -104,7 +238,135 @@ public class Zoo implements IZoo {
      * @return the area matching the given ID
      */
     public IArea getArea(int areaId) {
-        return zooAreas.get(areaId);
+        // IDs outside the table have never been given out
+        if (areaId < 0 || areaId > areaID)
+        {
+            return null;
+        }
+        return zooAreas[areaId];
+    }
+
+
+    // gives the other classes of the zoo package read access to the connections, which must not be modified
+    AreaConnections getAreaConnections() {
+        return areaConnections;
+    }
+
+
+    // checks one area against the areas kept reachable from the entrance, without building a list
+    boolean isReachableFromEntrance(int areaId) {
+        return reachableAreas.isReachable(areaId);
+    }
+
+
+    // checks whether visitors in an area can get back to the entrance, without building a list
+    boolean leadsToEntrance(int areaId) {
+        return exitAreas.isReachable(areaId);
+    }
+
+
+    // returns the highest area ID given out so far (IDs of removed areas included)
+    int getHighestAreaId() {
+        return areaID;
+    }
+
+
+    // gives out the next area ID without adding an area, leaving an empty slot like a removed area
+    // used to restore a zoo whose areas were not all kept, so the other areas keep their IDs
+    void skipAreaId() {
+        areaID++;
+        if (areaID == zooAreas.length)
+        {
+            zooAreas = Arrays.copyOf(zooAreas, zooAreas.length * 2);
+        }
+    }
+
+
+    /**
+     * this method adds an animal while a saved zoo is restored, with the same checks as addAnimal
+     * a saved zoo only ever holds animals that passed them, so one that fails them means the file was changed
+     * @param areaId the ID of the area the animal is to be added to
+     * @param animal the animal to be added
+     * @return a byte code (see Codes) to confirm whether the animal was added or not
+     */
+    byte restoreAnimal(int areaId, Animal animal) {
+        IArea selectedArea = getArea(areaId);
+        return admitAnimal(areaId, selectedArea, ((Areas) selectedArea).getAreaKind(), animal);
+    }
+
+
+    /**
+     * this method connects many areas at once, used by the importer and by snapshot loading
+     * the connection segments are built in one pass, instead of growing with every connection
+     * @param packedConnections the connections, each packed as (from << 32 | to), added to every area in the order given
+     *                          the array is reused to hold the connections that were actually added
+     * @param nrConnections the number of connections, from the start of the array
+     * @return the number of connections added, leaving out those to missing areas, those already in the zoo,
+     *         and every repeat of a connection given more than once
+     */
+    int connectAreasInBulk(long[] packedConnections, int nrConnections) {
+        // a sorted copy finds the repeats, and marks every connection once it was taken, so the order given is kept
+        long[] sortedConnections = Arrays.copyOf(packedConnections, nrConnections);
+        Arrays.sort(sortedConnections);
+        boolean[] taken = new boolean[nrConnections];
+        int nrAdded = 0;
+        for (int connectionCounter = 0; connectionCounter < nrConnections; connectionCounter++) {
+            long connection = packedConnections[connectionCounter];
+            int fromAreaId = (int) (connection >>> 32);
+            int toAreaId = (int) connection;
+            int sortedPosition = findFirst(sortedConnections, connection);
+            if (!taken[sortedPosition] && getArea(fromAreaId) != null && getArea(toAreaId) != null
+                    && !areaConnections.contains(fromAreaId, toAreaId))
+            {
+                taken[sortedPosition] = true;
+                packedConnections[nrAdded++] = connection;
+            }
+        }
+        areaConnections.addConnections(packedConnections, nrAdded);
+        connectionsVersion++;
+        long record = 0;
+        for (int connectionCounter = 0; connectionCounter < nrAdded; connectionCounter++) {
+            int fromAreaId = (int) (packedConnections[connectionCounter] >>> 32);
+            int toAreaId = (int) packedConnections[connectionCounter];
+            // every connection is already in place, so each area is searched from at most once
+            reachableAreas.connectionAdded(fromAreaId, toAreaId);
+            exitAreas.connectionAdded(fromAreaId, toAreaId);
+            if (journal != null)
+            {
+                record = journal.recordAreasConnected(fromAreaId, toAreaId);
+            }
+        }
+        // the connections share one wait for the disk
+        if (journal != null && nrAdded > 0)
+        {
+            waitForJournal(record);
+        }
+        return nrAdded;
+    }
+
+
+    // finds the first position of a value in a sorted array that holds it, also in a run of repeats
+    private static int findFirst(long[] sortedValues, long value) {
+        int low = 0;
+        int high = sortedValues.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] < value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    // returns the entrance fee in pence
+    int getEntranceFee() {
+        return entranceFee;
     }
 
 
@@ -115,35 +377,146 @@ public class Zoo implements IZoo {
      * @return a byte code to confirm whether the animal was successfully added or not
      */
     public byte addAnimal(int areaId, Animal animal) {
-        IArea selectedArea = zooAreas.get(areaId);
-        // first checks if the area is a habitat
-        if (!((areas.Areas) selectedArea).isAreaAHabitat(selectedArea))
+        IArea selectedArea = getArea(areaId);
+        byte result = admitAnimal(areaId, selectedArea, ((Areas) selectedArea).getAreaKind(), animal);
+        if (result == Codes.ANIMAL_ADDED && journal != null)
         {
-            return Codes.NOT_A_HABITAT;
+            waitForJournal(journal.getLastAddedRecord());
         }
-        // then if the area is the right habitat for the animal
-        else if (!animal.isCorrectHabitat(selectedArea, animal))
-        {
-            return Codes.WRONG_HABITAT;
+        return result;
+    }
+
+
+    /**
+     * this method adds a batch of animals to a certain area, in the order given
+     * the area is looked up once, and every animal is checked against the inhabitants added before it
+     * with the same checks, in the same order, as addAnimal
+     * @param areaId The ID of the area the animals are to be added to.
+     * @param animals The animals to be added.
+     * @return a byte code (see Codes) for every animal, confirming whether it was added or not
+     */
+    public byte[] addAnimals(int areaId, List<Animal> animals) {
+        byte[] results = new byte[animals.size()];
+        IArea selectedArea = getArea(areaId);
+        int areaKind = ((Areas) selectedArea).getAreaKind();
+        boolean anyAdded = false;
+        int animalCounter = 0;
+        for (Animal animal : animals) {
+            results[animalCounter] = admitAnimal(areaId, selectedArea, areaKind, animal);
+            anyAdded |= results[animalCounter] == Codes.ANIMAL_ADDED;
+            animalCounter++;
         }
-        // then if the habitat has space for the animal
-        // this already assumes the area is a habitat (and casts the area to type Habitats)
-        // since it would have failed the previous tests otherwise
-        else if (((Habitats) selectedArea).isHabitatFull(selectedArea))
+        // the whole batch shares one wait for the disk
+        if (anyAdded && journal != null)
         {
-            return Codes.HABITAT_FULL;
+            waitForJournal(journal.getLastAddedRecord());
         }
-        // then if the animals already in the habitat are compatible
-        // with the animal to be added
-        else if (!animal.areAnimalsCompatible(selectedArea, animal))
+        return results;
+    }
+
+
+    /**
+     * this method makes the checks of adding an animal, and adds it if they all pass
+     * it can be called by several threads at once: the capacity check, the compatibility check, the insert,
+     * the nickname index and the journal record are all made under the habitat's lock, so they happen as one step
+     * the caller waits for the journal afterwards, outside the lock, where concurrent callers share the write to disk
+     * the animal's record is then the last one added or an earlier one, so waiting for the last record added covers it
+     * @param areaId the ID of the area the animal is to be added to
+     * @param selectedArea the area the animal is to be added to
+     * @param areaKind the kind of the area
+     * @param animal the animal to be added
+     * @return a byte code (see Codes) to confirm whether the animal was added or not
+     */
+    private byte admitAnimal(int areaId, IArea selectedArea, int areaKind, Animal animal) {
+        // the table answers whether the area is a habitat, and the right one for the animal, in one lookup
+        // a wrong habitat takes precedence over a full one, so it is checked first
+        int speciesId = animal.getSpeciesId();
+        byte admission = speciesId == Animal.UNKNOWN_SPECIES ? admitUnknownSpecies(selectedArea, animal) : ADMISSION[speciesId][areaKind];
+        if (admission != Codes.ANIMAL_ADDED)
         {
-            return Codes.INCOMPATIBLE_INHABITANTS;
+            return admission;
+        }
+        Habitats habitat = (Habitats) selectedArea;
+        synchronized (habitatLocks[areaId & (NR_HABITAT_LOCKS - 1)]) {
+            // then if the habitat has space for the animal, which takes precedence over incompatible inhabitants
+            if (habitat.isFull())
+            {
+                return Codes.HABITAT_FULL;
+            }
+            // then if the animals already in the habitat are compatible
+            // with the animal to be added
+            if (!habitat.isCompatibleWithInhabitants(animal))
+            {
+                return Codes.INCOMPATIBLE_INHABITANTS;
+            }
+            habitat.addInhabitant(animal);
+            nicknameIndex.add(areaId, animal);
+            if (journal != null)
+            {
+                journal.recordAnimalAdded(areaId, animal);
+            }
         }
-        ((Habitats) selectedArea).addInhabitant(animal, selectedArea);
         return Codes.ANIMAL_ADDED;
     }
 
 
+    /**
+     * this method makes the first check of adding an animal of a species the table does not know,
+     * by asking the animal whether the area is its habitat
+     * such animals cannot be written to the journal, so a zoo with a journal refuses them
+     * @return NOT_A_HABITAT, WRONG_HABITAT, or ANIMAL_ADDED if the area is the right habitat for the animal
+     */
+    private byte admitUnknownSpecies(IArea selectedArea, Animal animal) {
+        if (journal != null)
+        {
+            throw new IllegalArgumentException("Animals of class " + animal.getClass().getName() + " cannot be journaled");
+        }
+        if (!((Areas) selectedArea).isAreaAHabitat(selectedArea))
+        {
+            return Codes.NOT_A_HABITAT;
+        }
+        return animal.isCorrectHabitat(selectedArea, animal) ? Codes.ANIMAL_ADDED : Codes.WRONG_HABITAT;
+    }
+
+
+    /**
+     * this method runs an action while holding the locks of the given habitats, so no animal can be added to them meanwhile
+     * the locks are always taken in the same order, so two callers can never wait for each other
+     * @param areaIds the IDs of the habitats
+     * @param action the action, which may add animals to the habitats itself
+     * @return the result of the action
+     */
+    <T> T withHabitatLocks(int[] areaIds, Supplier<T> action) {
+        boolean[] locksNeeded = new boolean[NR_HABITAT_LOCKS];
+        for (int areaId : areaIds) {
+            locksNeeded[areaId & (NR_HABITAT_LOCKS - 1)] = true;
+        }
+        return withHabitatLocks(locksNeeded, 0, action);
+    }
+
+
+    // runs an action while holding the locks of every habitat
+    <T> T withAllHabitatLocks(Supplier<T> action) {
+        boolean[] locksNeeded = new boolean[NR_HABITAT_LOCKS];
+        Arrays.fill(locksNeeded, true);
+        return withHabitatLocks(locksNeeded, 0, action);
+    }
+
+
+    // takes the needed locks from the given one onwards, one inside the other, then runs the action
+    private <T> T withHabitatLocks(boolean[] locksNeeded, int firstLock, Supplier<T> action) {
+        for (int lockCounter = firstLock; lockCounter < NR_HABITAT_LOCKS; lockCounter++) {
+            if (locksNeeded[lockCounter])
+            {
+                synchronized (habitatLocks[lockCounter]) {
+                    return withHabitatLocks(locksNeeded, lockCounter + 1, action);
+                }
+            }
+        }
+        return action.get();
+    }
+
+
     // ---------------- INTERMEDIATE ----------------
 
 
@@ -153,10 +526,29 @@ public class Zoo implements IZoo {
      * @param toAreaId The ID of the destination area.
      */
     public void connectAreas(int fromAreaId, int toAreaId) {
+        // both areas must be part of the zoo
+        if (getArea(fromAreaId) == null || getArea(toAreaId) == null)
+        {
+            System.out.println("Area does not exist.");
+            return;
+        }
+        // connecting the same areas twice has no effect
+        if (areaConnections.contains(fromAreaId, toAreaId))
+        {
+            return;
+        }
         // add the toAreaID area to the list of connections for the fromAreaID area
-        areaConnections.get(fromAreaId).add(toAreaId);
-        // also add the toAreaID area to the list of adjacent areas of the fromAreaID area
-        zooAreas.get(fromAreaId).getAdjacentAreas().add(toAreaId);
+        // the adjacent areas of the fromAreaID area are read from this list as well
+        areaConnections.addConnection(fromAreaId, toAreaId);
+        connectionsVersion++;
+        // the new connection may make more areas reachable from the entrance
+        reachableAreas.connectionAdded(fromAreaId, toAreaId);
+        // and may give more areas a way back to the entrance
+        exitAreas.connectionAdded(fromAreaId, toAreaId);
+        if (journal != null)
+        {
+            waitForJournal(journal.recordAreasConnected(fromAreaId, toAreaId));
+        }
     }
 
 
@@ -166,31 +558,8 @@ public class Zoo implements IZoo {
      * @return Returns true iff visitors are allowed to visit the areas in the order given by the passed in list.
      */
     public boolean isPathAllowed(ArrayList<Integer> areaIds) {
-        // if the length of the path is one, then the path is valid
-        if (areaIds.size() == 1)
-        {
-            return true;
-        }
-        // this variable keeps track of how many areas are connected
-        // used to determine if the whole path is valid, or just part of it
-        int countConnectedAreas = 0;
-        for (int areasCounter = 0; areasCounter < areaIds.size() - 1; areasCounter++) {
-            // for each area on the given path, get all the reachable areas
-            ArrayList<Integer> adjacentAreasIds = areaConnections.get(areaIds.get(areasCounter));
-            for (Integer adjacentAreasId : adjacentAreasIds) {
-                // and check if the area ID of the next area on the given path
-                // matches any of the IDs of the reachable areas
-                if (areaIds.get(areasCounter + 1).equals(adjacentAreasId)) {
-                    countConnectedAreas++;
-                }
-            }
-        }
-        // return true only if every area on the path can be reached from the previous area
-        if (countConnectedAreas == areaIds.size() - 1)
-        {
-            return true;
-        }
-        return false;
+        // the path is unboxed once, then checked the same way as the paths of the batch methods
+        return isPathAllowed(areaIds.stream().mapToInt(Integer::intValue).toArray());
     }
 
 
@@ -210,49 +579,171 @@ public class Zoo implements IZoo {
             // keeps track of all the animals seen, across all habitats
             ArrayList<String> animalsSeen = new ArrayList<>();
             for (Integer integer : areaIdsVisited) {
-                // this variable is used to make the code neater and more readable
-                IArea currentArea = zooAreas.get(integer);
-                // check if the area is a habitat, since if it isn't, no animals can be recorded
-                if (((Areas) currentArea).isAreaAHabitat(currentArea)) {
-                    // add all the inhabitants' names of the given habitat to the animalsSeen list
-                    ArrayList<Animal> inhabitants = ((Habitats) currentArea).getInhabitants();
-                    for (Animal inhabitant : inhabitants) {
-                        animalsSeen.add(inhabitant.getNickname());
-                    }
-                }
+                addAnimalsSeen(integer, animalsSeen);
             }
             return animalsSeen;
         }
     }
 
 
+    /**
+     * Visits the areas in the specified order, handing over the names of the animals as soon as they are seen.
+     * Unlike visit, the path is checked one step at a time and nothing is collected, so very long paths
+     * use no more memory than short ones.
+     * @param areaIdsVisited Areas IDs in the order they were visited, read one at a time.
+     * @param animalsSeen Receives the names of all animals seen during the visit in the order they were seen.
+     * @return Returns true iff the whole path obeys the one-way system. If a step breaks it, the visit stops there,
+     * so only the animals seen before that step have been handed over.
+     */
+    public boolean visitStream(PrimitiveIterator.OfInt areaIdsVisited, Consumer<String> animalsSeen) {
+        // an empty path is not a valid path
+        if (!areaIdsVisited.hasNext())
+        {
+            return false;
+        }
+        int currentAreaId = areaIdsVisited.nextInt();
+        emitAnimalsSeen(currentAreaId, animalsSeen);
+        while (areaIdsVisited.hasNext()) {
+            int nextAreaId = areaIdsVisited.nextInt();
+            // check the step before recording anything in the next area
+            if (!areaConnections.contains(currentAreaId, nextAreaId))
+            {
+                return false;
+            }
+            emitAnimalsSeen(nextAreaId, animalsSeen);
+            currentAreaId = nextAreaId;
+        }
+        return true;
+    }
+
+
+    // hands over the names of all the animals living in the given area, if it is a habitat
+    private void emitAnimalsSeen(int areaId, Consumer<String> animalsSeen) {
+        IArea currentArea = getArea(areaId);
+        if (currentArea != null && ((Areas) currentArea).isAreaAHabitat(currentArea)) {
+            for (String nickname : ((Habitats) currentArea).getNicknames()) {
+                animalsSeen.accept(nickname);
+            }
+        }
+    }
+
+
+    /**
+     * This is a helper method for the visit methods
+     * records the names of all the animals living in the given area, if it is a habitat
+     * @param areaId the ID of the area being visited
+     * @param animalsSeen the list the names of the animals are added to
+     */
+    private void addAnimalsSeen(int areaId, ArrayList<String> animalsSeen) {
+        // this variable is used to make the code neater and more readable
+        IArea currentArea = getArea(areaId);
+        // check if the area is a habitat, since if it isn't, no animals can be recorded
+        if (currentArea != null && ((Areas) currentArea).isAreaAHabitat(currentArea)) {
+            // add all the inhabitants' names of the given habitat to the animalsSeen list
+            // the names are copied in one go from the habitat's snapshot
+            animalsSeen.addAll(Arrays.asList(((Habitats) currentArea).getNicknames()));
+        }
+    }
+
+
+    /**
+     * Checks many paths at once, splitting them across all available cores.
+     * The zoo must not be changed while the paths are being checked.
+     * @param paths The paths to check, each given as an array of area IDs.
+     * @return For every path, true iff it obeys the one-way system (same rules as isPathAllowed).
+     */
+    public boolean[] validatePaths(int[][] paths) {
+        boolean[] pathsAllowed = new boolean[paths.length];
+        IntStream.range(0, paths.length).parallel().forEach(pathCounter ->
+                pathsAllowed[pathCounter] = isPathAllowed(paths[pathCounter]));
+        return pathsAllowed;
+    }
+
+
+    /**
+     * Visits many paths at once, splitting them across all available cores.
+     * The zoo must not be changed while the paths are being visited.
+     * @param paths The paths to visit, each given as an array of area IDs.
+     * @return For every path, the names of all animals seen in the order they were seen,
+     * or null if the path does not obey the one-way system (same rules as visit).
+     */
+    public ArrayList<ArrayList<String>> visitAll(int[][] paths) {
+        // every path sets only its own element, so the list is filled in place from all the threads
+        ArrayList<ArrayList<String>> animalsSeenPerPath = new ArrayList<>(Collections.nCopies(paths.length, null));
+        IntStream.range(0, paths.length).parallel().forEach(pathCounter -> {
+            int[] path = paths[pathCounter];
+            if (isPathAllowed(path))
+            {
+                ArrayList<String> animalsSeen = new ArrayList<>();
+                for (int areaId : path) {
+                    addAnimalsSeen(areaId, animalsSeen);
+                }
+                animalsSeenPerPath.set(pathCounter, animalsSeen);
+            }
+        });
+        return animalsSeenPerPath;
+    }
+
+
+    /**
+     * This is the check behind isPathAllowed, also used by the batch methods without boxing
+     * @param areaIds the path as an array of area IDs
+     * @return true iff every area on the path leads directly to the next area on the path
+     */
+    private boolean isPathAllowed(int[] areaIds) {
+        // an empty path is not a valid path
+        if (areaIds.length == 0)
+        {
+            return false;
+        }
+        for (int areasCounter = 0; areasCounter < areaIds.length - 1; areasCounter++) {
+            // every area on the path must lead directly to the next area on the path
+            // so the path is invalid as soon as one of these connections does not exist
+            if (!areaConnections.contains(areaIds[areasCounter], areaIds[areasCounter + 1]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     /**
      * This method is used to find all the areas that can't be reached
      * from the entrance of the zoo
      * @return a list of the area IDs of all the unreachable areas from the entrance
      */
     public ArrayList<Integer> findUnreachableAreas() {
-        Integer[] allAreaIds = zooAreas.keySet().toArray(new Integer[0]);
-        // this list keeps track of all unreachable area IDs
+        // the reachable areas are kept up to date as the zoo changes
+        // so the unreachable areas are simply all the areas that were not marked as reachable
+        return reachableAreas.getUnreachableAreas();
+    }
+
+
+    /**
+     * This method is used to find all the areas visitors can get into, but cannot get back to the entrance from
+     * by following the one-way system (dead-end traps)
+     * @return a list of the area IDs of all the areas with no path back to the entrance
+     */
+    public ArrayList<Integer> findTrappedAreas() {
+        // the areas that can reach the entrance are kept up to date as the zoo changes, just like the reachable areas
+        return exitAreas.getUnreachableAreas();
+    }
+
+
+    /**
+     * This method finds the same areas as findUnreachableAreas, but searches the whole zoo using all available cores
+     * it is meant for very large zoos (millions of areas), where a single-threaded search takes too long
+     * @return a list of the area IDs of all the unreachable areas from the entrance
+     */
+    public ArrayList<Integer> findUnreachableAreasInParallel() {
+        long[] reachableAreaIds = ParallelAreaSearch.findReachableAreas(areaConnections, areaID + 1, 0);
         ArrayList<Integer> allUnreachableAreaIds = new ArrayList<>();
-        // this hashmap is used to keep track of whether each area from the zoo
-        // can be reached from the entrance or not
-        HashMap<Integer, Boolean> reachableAreas = new HashMap<>();
-        // entrance is set to true, since the entrance can always be reached
-        reachableAreas.put(0, true);
-        // all the default values are false (apart from the entrance), before any checks are performed
-        for (int currentAreaId = 1; currentAreaId < allAreaIds.length; currentAreaId++) {
-            reachableAreas.put(allAreaIds[currentAreaId], false);
-        }
-        // perform the necessary checks, and eliminate all the reachable areas
-        addUnreachableAreas(0, new ArrayList<>(), reachableAreas);
-        // based on the result of the addUnreachableAreas function, the list of unreachable area IDs is updated
-        for (int givenAreaID : reachableAreas.keySet()) {
-            // if the value for the specific ID is still false, then the area is unreachable
-            // and is added to the unreachable list
-            if (!reachableAreas.get(givenAreaID))
-            {
-                allUnreachableAreaIds.add(givenAreaID);
+        for (int currentAreaId = 1; currentAreaId <= areaID; currentAreaId++) {
+            // skip the slots of areas that were removed
+            if (zooAreas[currentAreaId] != null && (reachableAreaIds[currentAreaId >> 6] & (1L << currentAreaId)) == 0)
+            {
+                allUnreachableAreaIds.add(currentAreaId);
             }
         }
         return allUnreachableAreaIds;
@@ -260,47 +751,275 @@ public class Zoo implements IZoo {
 
 
     /**
-     * This is a helper method for the findUnreachableAreas method
-     * checks whether all the areas in the zoo are connected to the entrance or not
-     * and hence can be reached from the entrance or not
-     * @param areaId          the ID of the current area being checked
-     * @param checkedAreas  List that keeps track of all areas that have been checked
-     * @param reachableAreas HashMap containing all areas with corresponding boolean values
-     *                       that indicate whether or not the area can be reached from the entrance
+     * Checks whether visitors can get from one area to another by following the one-way system.
+     * The first call after the connections change builds an index of the whole zoo, every other call takes constant time.
+     * @param fromAreaId The ID of the area to start from.
+     * @param toAreaId The ID of the area to get to.
+     * @return Returns true iff both areas exist and there is a path from the first to the second.
+     */
+    public boolean isReachable(int fromAreaId, int toAreaId) {
+        if (getArea(fromAreaId) == null || getArea(toAreaId) == null)
+        {
+            return false;
+        }
+        if (reachabilityIndex == null || reachabilityIndexVersion != connectionsVersion)
+        {
+            reachabilityIndex = new ReachabilityIndex(areaConnections, areaID + 1);
+            reachabilityIndexVersion = connectionsVersion;
+        }
+        return reachabilityIndex.isReachable(fromAreaId, toAreaId);
+    }
+
+
+    /**
+     * Finds a route with as few steps as possible between two areas, following the one-way system.
+     * @param fromAreaId The ID of the area to start from.
+     * @param toAreaId The ID of the area to get to.
+     * @return Returns the area IDs of the route, starting with fromAreaId and ending with toAreaId,
+     * or null if either area does not exist or the second cannot be reached from the first.
      */
-    private void addUnreachableAreas(int areaId, ArrayList<Integer> checkedAreas, HashMap<Integer, Boolean> reachableAreas) {
-        // retrieve all the adjacent areas for the specified areaID
-        ArrayList<Integer> adjacentAreas = zooAreas.get(areaId).getAdjacentAreas();
-        // check if the specified area has adjacent areas
-        if (adjacentAreas.size() > 0)
+    public ArrayList<Integer> shortestPath(int fromAreaId, int toAreaId) {
+        if (getArea(fromAreaId) == null || getArea(toAreaId) == null)
+        {
+            return null;
+        }
+        // a cached tree is only valid for the connections it was built from
+        if (routeTreesVersion != connectionsVersion)
+        {
+            routeTrees.clear();
+            routeTreesVersion = connectionsVersion;
+        }
+        int[] reachedFrom = routeTrees.get(fromAreaId);
+        if (reachedFrom == null)
+        {
+            reachedFrom = buildRouteTree(fromAreaId);
+            routeTrees.put(fromAreaId, reachedFrom);
+        }
+        // areas added after the tree was built have no connections yet
+        if (toAreaId >= reachedFrom.length || reachedFrom[toAreaId] == -1)
         {
-            for (int areaIdCounter : adjacentAreas) {
-                // if it does, set all the adjacent areas to true, since they can be reached from the entrance
-                reachableAreas.put(areaIdCounter, true);
-                // this ensures that no duplicates are added to the list
-                if (checkedAreas.contains(areaIdCounter))
+            return null;
+        }
+        // follow the tree back from the destination, then reverse the route
+        int nrSteps = 0;
+        for (int areaId = toAreaId; areaId != fromAreaId; areaId = reachedFrom[areaId]) {
+            nrSteps++;
+        }
+        Integer[] route = new Integer[nrSteps + 1];
+        int areaId = toAreaId;
+        for (int stepCounter = nrSteps; stepCounter >= 0; stepCounter--) {
+            route[stepCounter] = areaId;
+            areaId = reachedFrom[areaId];
+        }
+        return new ArrayList<>(Arrays.asList(route));
+    }
+
+
+    /**
+     * This is a helper method for the shortestPath method
+     * searches the zoo breadth-first from the given area, so every area is first reached by a shortest route
+     * @param fromAreaId the ID of the area to start from
+     * @return for every area ID, the area it is first reached from, -1 if it cannot be reached
+     */
+    private int[] buildRouteTree(int fromAreaId) {
+        int[] reachedFrom = new int[areaID + 1];
+        Arrays.fill(reachedFrom, -1);
+        reachedFrom[fromAreaId] = fromAreaId;
+        int[] areasToCheck = new int[areaID + 1];
+        int queueStart = 0;
+        int queueEnd = 0;
+        areasToCheck[queueEnd++] = fromAreaId;
+        while (queueStart < queueEnd) {
+            int currentAreaId = areasToCheck[queueStart++];
+            int[] adjacentAreas = areaConnections.getConnections(currentAreaId);
+            int nrAdjacentAreas = areaConnections.getNrConnections(currentAreaId);
+            for (int adjacentCounter = 0; adjacentCounter < nrAdjacentAreas; adjacentCounter++) {
+                int adjacentAreaId = adjacentAreas[adjacentCounter];
+                if (reachedFrom[adjacentAreaId] == -1)
                 {
-                    continue;
+                    reachedFrom[adjacentAreaId] = currentAreaId;
+                    areasToCheck[queueEnd++] = adjacentAreaId;
                 }
-                // if it isn't already in the list, then add it to the checked areas list
-                checkedAreas.add(areaIdCounter);
-                // repeat this until no more adjacent areas are found
-                addUnreachableAreas(areaIdCounter, checkedAreas, reachableAreas);
             }
         }
+        return reachedFrom;
+    }
+
+
+    /**
+     * Suggests a tour from the entrance that shows visitors as many animals as possible.
+     * Searches for up to a second, keeping the 256 most promising partial tours at every step.
+     * @param maxSteps The maximum number of moves from one area to the next.
+     * @return Returns the area IDs of the tour, starting at the entrance. The tour obeys the one-way system.
+     */
+    public ArrayList<Integer> recommendTour(int maxSteps) {
+        return recommendTour(maxSteps, 256, 1000);
+    }
+
+
+    /**
+     * Suggests a tour from the entrance that shows visitors as many animals as possible.
+     * @param maxSteps The maximum number of moves from one area to the next.
+     * @param beamWidth The number of partial tours kept at every step, more gives better tours but takes longer.
+     * @param timeBudgetMillis The time after which the best tour found so far is returned.
+     * @return Returns the area IDs of the tour, starting at the entrance. The tour obeys the one-way system.
+     */
+    public ArrayList<Integer> recommendTour(int maxSteps, int beamWidth, long timeBudgetMillis) {
+        return new TourPlanner(this).findBestTour(maxSteps, beamWidth, timeBudgetMillis);
+    }
+
+
+    /**
+     * Finds the animals with the given nickname.
+     * @param nickname The nickname to look for.
+     * @return Returns every animal with exactly that nickname, with the ID of its habitat, in the order they were added.
+     */
+    public ArrayList<AnimalLocation> findAnimals(String nickname) {
+        return nicknameIndex.find(nickname);
+    }
+
+
+    /**
+     * Finds the animals whose nickname starts with the given text, e.g. to suggest nicknames while one is typed.
+     * @param prefix The start of the nickname.
+     * @param maxResults The maximum number of animals returned.
+     * @return Returns the animals found, with the IDs of their habitats, in alphabetical order of nickname.
+     */
+    public ArrayList<AnimalLocation> findAnimalsByPrefix(String prefix, int maxResults) {
+        return nicknameIndex.findByPrefix(prefix, maxResults);
     }
 
 
     // ---------------- ADVANCED ----------------
 
 
+    /**
+     * Finds habitats for a batch of animals, placing as many of them as possible, and adds them there.
+     * The search takes at most a second.
+     * @param animals The animals to place.
+     * @return For every animal, the ID of the area it was added to, or -1 if it could not be placed.
+     */
+    public int[] placeAnimals(List<Animal> animals) {
+        return placeAnimals(animals, 1000);
+    }
+
+
+    /**
+     * Finds habitats for a batch of animals, placing as many of them as possible, and adds them there.
+     * @param animals The animals to place.
+     * @param timeBudgetMillis The time after which the best placement found so far is used.
+     * @return For every animal, the ID of the area it was added to, or -1 if it could not be placed.
+     */
+    public int[] placeAnimals(List<Animal> animals, long timeBudgetMillis) {
+        return new PlacementEngine(this).placeAnimals(animals, timeBudgetMillis);
+    }
+
+
+    /**
+     * Saves the whole zoo (areas, connections, animals, entrance fee and ticket machine cash) to a binary snapshot file.
+     * @param path The file to write, replaced if it already exists.
+     * @throws IOException if the file cannot be written
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        ZooSnapshot.save(this, path);
+    }
+
+
+    /**
+     * Loads a zoo from a snapshot file written by saveSnapshot. Every area keeps its ID.
+     * @param path The snapshot file to read.
+     * @return A zoo in the same state as the one that was saved.
+     * @throws IOException if the file cannot be read or is not a zoo snapshot
+     */
+    public static Zoo loadSnapshot(Path path) throws IOException {
+        return ZooSnapshot.load(path);
+    }
+
+
+    /**
+     * Opens a zoo backed by a journal file. Every change already in the journal is replayed first,
+     * then every later change (areas, connections, animals, entrance fee and ticket machine cash)
+     * is added to it, and is on disk before the method making it returns.
+     * Changes made at the same time from several threads share a single write to disk.
+     * @param path The journal file, created if it does not exist yet.
+     * @return A zoo in the same state as when the journal was last written.
+     * @throws IOException if the journal cannot be read or written
+     */
+    public static Zoo openJournal(Path path) throws IOException {
+        Zoo zoo = new Zoo();
+        zoo.journal = ZooJournal.open(path, zoo);
+        return zoo;
+    }
+
+
+    // opens a zoo backed by a journal file that is already open, so the tests can make its writes fail
+    static Zoo openJournal(Path path, FileChannel channel) throws IOException {
+        Zoo zoo = new Zoo();
+        zoo.journal = ZooJournal.open(path, channel, zoo);
+        return zoo;
+    }
+
+
+    /**
+     * Shrinks the journal to the changes needed to rebuild the zoo as it is now, dropping its history
+     * (such as removed areas and every payment made). No other changes may be made while it is compacted.
+     * @throws IOException if the compacted journal cannot be written, in which case the old one is kept
+     */
+    public void compactJournal() throws IOException {
+        if (journal != null)
+        {
+            // the ticket machine is held so no payment is made in the middle
+            synchronized (ticketMachine) {
+                journal.compact(this);
+            }
+        }
+    }
+
+
+    /**
+     * Writes any changes not yet on disk and closes the journal. Later changes are no longer recorded.
+     * @throws IOException if the journal cannot be written
+     */
+    public void closeJournal() throws IOException {
+        if (journal != null)
+        {
+            journal.close();
+            journal = null;
+        }
+    }
+
+
+    // waits until the given journal record is on disk
+    // the methods of IZoo cannot throw IOException, so a failed write is passed on unchecked
+    private void waitForJournal(long record) {
+        try {
+            journal.waitUntilDurable(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+
     /**
      * Sets a new ticket price in pounds and pence.
      * @param pounds The first part of the cost before the point e.g. 17 for a ticket that costs £17.50
      * @param pence The second part of the cost after the point e.g. 50 for a ticket that costs £17.50
      */
     public void setEntranceFee(int pounds, int pence) {
-        entranceFee = pounds * 100 + pence;
+        long record = 0;
+        // the fee changes in the same order as it is journaled, between payments
+        synchronized (ticketMachine) {
+            entranceFee = pounds * 100 + pence;
+            if (journal != null)
+            {
+                record = journal.recordEntranceFee(entranceFee);
+            }
+        }
+        if (journal != null)
+        {
+            waitForJournal(record);
+        }
     }
 
 
@@ -309,14 +1028,26 @@ public class Zoo implements IZoo {
      * @param coins The number of notes and coins of different denominations available.
      */
     public void setCashSupply(ICashCount coins) {
-        ticketMachine.setNrNotes_20pounds(coins.getNrNotes_20pounds());
-        ticketMachine.setNrNotes_10pounds(coins.getNrNotes_10pounds());
-        ticketMachine.setNrNotes_5pounds(coins.getNrNotes_5pounds());
-        ticketMachine.setNrCoins_2pounds(coins.getNrCoins_2pounds());
-        ticketMachine.setNrCoins_1pound(coins.getNrCoins_1pound());
-        ticketMachine.setNrCoins_50p(coins.getNrCoins_50p());
-        ticketMachine.setNrCoins_20p(coins.getNrCoins_20p());
-        ticketMachine.setNrCoins_10p(coins.getNrCoins_10p());
+        long record = 0;
+        // the cash changes in the same order as it is journaled, between payments
+        synchronized (ticketMachine) {
+            ticketMachine.setNrNotes_20pounds(coins.getNrNotes_20pounds());
+            ticketMachine.setNrNotes_10pounds(coins.getNrNotes_10pounds());
+            ticketMachine.setNrNotes_5pounds(coins.getNrNotes_5pounds());
+            ticketMachine.setNrCoins_2pounds(coins.getNrCoins_2pounds());
+            ticketMachine.setNrCoins_1pound(coins.getNrCoins_1pound());
+            ticketMachine.setNrCoins_50p(coins.getNrCoins_50p());
+            ticketMachine.setNrCoins_20p(coins.getNrCoins_20p());
+            ticketMachine.setNrCoins_10p(coins.getNrCoins_10p());
+            if (journal != null)
+            {
+                record = journal.recordCashSupply(coins);
+            }
+        }
+        if (journal != null)
+        {
+            waitForJournal(record);
+        }
     }
 
 
@@ -336,6 +1067,32 @@ public class Zoo implements IZoo {
      * @return The change returned to the user (see assignment instructions for precise specification).
      */
     public ICashCount payEntranceFee(ICashCount cashInserted) {
+        ICashCount change;
+        long record = 0;
+        // payments change the ticket machine one at a time, in the same order as they are journaled
+        // only the wait for the disk happens outside, so concurrent payments share it
+        synchronized (ticketMachine) {
+            // the payment is recorded first, since paying the exact amount empties cashInserted
+            if (journal != null)
+            {
+                record = journal.recordEntranceFeePaid(cashInserted);
+            }
+            change = takeEntranceFee(cashInserted);
+        }
+        if (journal != null)
+        {
+            waitForJournal(record);
+        }
+        return change;
+    }
+
+
+    /**
+     * This method takes the entrance fee out of the cash inserted, and works out the change
+     * @param cashInserted The notes and coins inserted by the user buying a ticket.
+     * @return The change returned to the user, or the cash inserted if the payment is refused.
+     */
+    private ICashCount takeEntranceFee(ICashCount cashInserted) {
         // calculate the total cash inserted and the total stock of the ticket machine
         int totalInserted = calculateTotalInserted(cashInserted);
         int totalCashLeft = calculateTotalCashLeft();
@@ -0,0 +1,426 @@
+package zoo;
+
+import animals.Animal;
+import areas.Habitats;
+import areas.IArea;
+import dataStructures.AreaConnections;
+import dataStructures.CashCount;
+import dataStructures.ICashCount;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/** this class is an append-only journal of every change made to a zoo
+ * replaying it on startup rebuilds the zoo exactly, including the cash in the ticket machine
+ *
+ * every record is: int payload length, int CRC32 of the payload, payload (a record type followed by its values)
+ * a record that was only partly written when the process stopped fails its check, and is cut off on the next start
+ *
+ * changes are made durable with group commit: callers add their records to a shared buffer and wait,
+ * and one of them writes the buffer and forces it to disk for everyone who is waiting,
+ * so concurrent callers share the cost of a single fsync
+ * every batch is written at the end of the last durable batch, so a batch that failed is written again in the same place
+ *
+ * the journal is read back in chunks, so its size is not limited by the memory available,
+ * and it can be compacted into the smallest set of records that rebuilds the zoo as it is now
+ */
+class ZooJournal {
+
+    // the record types
+    private static final byte ADD_AREA = 1;
+    private static final byte REMOVE_AREA = 2;
+    private static final byte CONNECT_AREAS = 3;
+    private static final byte ADD_ANIMAL = 4;
+    private static final byte SET_ENTRANCE_FEE = 5;
+    private static final byte SET_CASH_SUPPLY = 6;
+    private static final byte PAY_ENTRANCE_FEE = 7;
+    private static final byte SKIP_AREA = 8;
+
+    // the size of the buffer the journal is read through, grown for larger records
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    // no record is this long, so a longer length can only come from a damaged record
+    private static final int MAX_RECORD_LENGTH = 1 << 24;
+
+    private Path path;
+    private FileChannel channel;
+    // the length of the journal that is on disk, where the next batch is written
+    private long durableLength;
+    // the records added but not written yet
+    private ByteBuffer pendingRecords = ByteBuffer.allocate(1 << 12);
+    // the number of the last record added, and of the last record forced to disk
+    private long lastAddedRecord = 0;
+    private long lastDurableRecord = 0;
+    // true while one of the callers is writing and forcing a batch of records
+    private boolean writing = false;
+    private CRC32 checksum = new CRC32();
+
+    private ZooJournal(Path path, FileChannel channel, long durableLength) {
+        this.path = path;
+        this.channel = channel;
+        this.durableLength = durableLength;
+    }
+
+    // ---------------- OPENING ----------------
+
+    /**
+     * this method replays an existing journal into the given zoo, then opens it for new records
+     * @param path the journal file, created if it does not exist yet
+     * @param zoo a new zoo, which the journal is replayed into
+     * @return the journal, positioned after the last complete record
+     * @throws IOException if the file cannot be read or written
+     */
+    static ZooJournal open(Path path, Zoo zoo) throws IOException {
+        return open(path, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), zoo);
+    }
+
+    /**
+     * this method replays a journal that is already open into the given zoo
+     * @param path the journal file, used again when the journal is compacted
+     * @param channel the journal file opened for reading and writing, closed with the journal
+     * @param zoo a new zoo, which the journal is replayed into
+     * @return the journal, positioned after the last complete record
+     * @throws IOException if the file cannot be read or written
+     */
+    static ZooJournal open(Path path, FileChannel channel, Zoo zoo) throws IOException {
+        long validLength = replay(channel, zoo);
+        // anything after the last complete record was cut off by a crash
+        channel.truncate(validLength);
+        return new ZooJournal(path, channel, validLength);
+    }
+
+    // reads the records one buffer at a time, and returns the length of the complete records
+    private static long replay(FileChannel channel, Zoo zoo) throws IOException {
+        CRC32 checksum = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        buffer.flip();
+        long recordStart = 0;
+        channel.position(0);
+        while (fill(channel, buffer, 8)) {
+            int length = buffer.getInt(buffer.position());
+            int expectedChecksum = buffer.getInt(buffer.position() + 4);
+            if (length <= 0 || length > MAX_RECORD_LENGTH)
+            {
+                return recordStart;
+            }
+            if (buffer.capacity() < 8 + length)
+            {
+                ByteBuffer largerBuffer = ByteBuffer.allocate(8 + length);
+                largerBuffer.put(buffer);
+                largerBuffer.flip();
+                buffer = largerBuffer;
+            }
+            if (!fill(channel, buffer, 8 + length))
+            {
+                return recordStart;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position() + 8, length);
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != expectedChecksum)
+            {
+                return recordStart;
+            }
+            try {
+                apply(payload, zoo);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                return recordStart;
+            }
+            buffer.position(buffer.position() + 8 + length);
+            recordStart += 8 + length;
+        }
+        return recordStart;
+    }
+
+    // reads more of the file until the buffer holds the given number of bytes, returns false if the file ends first
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int nrBytes) throws IOException {
+        if (buffer.remaining() >= nrBytes)
+        {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < nrBytes && channel.read(buffer) >= 0) {
+            // keep reading until the bytes are in the buffer or the file ends
+        }
+        buffer.flip();
+        return buffer.remaining() >= nrBytes;
+    }
+
+    // makes the change described by one record, using the same methods that made it originally
+    private static void apply(ByteBuffer record, Zoo zoo) {
+        switch (record.get()) {
+            case ADD_AREA:
+                byte areaType = record.get();
+                zoo.addArea(ZooSnapshot.newArea(areaType, record.getInt()));
+                break;
+            case REMOVE_AREA:
+                zoo.removeArea(record.getInt());
+                break;
+            case CONNECT_AREAS:
+                zoo.connectAreas(record.getInt(), record.getInt());
+                break;
+            case ADD_ANIMAL:
+                int areaId = record.getInt();
+                byte species = record.get();
+                byte[] nickname = new byte[record.remaining()];
+                record.get(nickname);
+                zoo.addAnimal(areaId, ZooSnapshot.newAnimal(species, new String(nickname, StandardCharsets.UTF_8)));
+                break;
+            case SET_ENTRANCE_FEE:
+                int entranceFee = record.getInt();
+                zoo.setEntranceFee(entranceFee / 100, entranceFee % 100);
+                break;
+            case SET_CASH_SUPPLY:
+                zoo.setCashSupply(readCash(record));
+                break;
+            case PAY_ENTRANCE_FEE:
+                zoo.payEntranceFee(readCash(record));
+                break;
+            case SKIP_AREA:
+                zoo.skipAreaId();
+                break;
+            default:
+                throw new BufferUnderflowException();
+        }
+    }
+
+    // ---------------- RECORDING ----------------
+
+    long recordAreaAdded(IArea area) {
+        int capacity = area instanceof Habitats ? ((Habitats) area).getCapacity() : 0;
+        return addRecord(ByteBuffer.allocate(6).put(ADD_AREA).put(ZooSnapshot.areaType(area)).putInt(capacity));
+    }
+
+    long recordAreaSkipped() {
+        return addRecord(ByteBuffer.allocate(1).put(SKIP_AREA));
+    }
+
+    long recordAreaRemoved(int areaId) {
+        return addRecord(ByteBuffer.allocate(5).put(REMOVE_AREA).putInt(areaId));
+    }
+
+    long recordAreasConnected(int fromAreaId, int toAreaId) {
+        return addRecord(ByteBuffer.allocate(9).put(CONNECT_AREAS).putInt(fromAreaId).putInt(toAreaId));
+    }
+
+    long recordAnimalAdded(int areaId, Animal animal) {
+        byte[] nickname = animal.getNickname().getBytes(StandardCharsets.UTF_8);
+        return addRecord(ByteBuffer.allocate(6 + nickname.length).put(ADD_ANIMAL).putInt(areaId).put(ZooSnapshot.speciesCode(animal)).put(nickname));
+    }
+
+    long recordEntranceFee(int entranceFee) {
+        return addRecord(ByteBuffer.allocate(5).put(SET_ENTRANCE_FEE).putInt(entranceFee));
+    }
+
+    long recordCashSupply(ICashCount coins) {
+        return addRecord(writeCash(ByteBuffer.allocate(33).put(SET_CASH_SUPPLY), coins));
+    }
+
+    long recordEntranceFeePaid(ICashCount cashInserted) {
+        return addRecord(writeCash(ByteBuffer.allocate(33).put(PAY_ENTRANCE_FEE), cashInserted));
+    }
+
+    /**
+     * this method adds a record to the batch that is written next
+     * @param payload the record type and values, filled up to its capacity
+     * @return the number of the record, to wait for with waitUntilDurable
+     */
+    private synchronized long addRecord(ByteBuffer payload) {
+        payload.flip();
+        checksum.reset();
+        checksum.update(payload.duplicate());
+        int recordLength = 8 + payload.remaining();
+        if (pendingRecords.remaining() < recordLength)
+        {
+            ByteBuffer largerBuffer = ByteBuffer.allocate(Math.max(pendingRecords.capacity() * 2, pendingRecords.position() + recordLength));
+            pendingRecords.flip();
+            largerBuffer.put(pendingRecords);
+            pendingRecords = largerBuffer;
+        }
+        pendingRecords.putInt(payload.remaining());
+        pendingRecords.putInt((int) checksum.getValue());
+        pendingRecords.put(payload);
+        return ++lastAddedRecord;
+    }
+
+    /**
+     * this method returns once the given record is on disk
+     * if no other caller is writing, this caller writes everything added so far, including other callers' records
+     * otherwise it waits for that caller, whose batch may already contain the record
+     * @param record the number returned when the record was added
+     * @throws IOException if the journal cannot be written
+     */
+    void waitUntilDurable(long record) throws IOException {
+        ByteBuffer batch;
+        long lastRecordInBatch;
+        long batchStart;
+        synchronized (this) {
+            while (lastDurableRecord < record && writing) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal", e);
+                }
+            }
+            if (lastDurableRecord >= record)
+            {
+                return;
+            }
+            // this caller writes the batch, and new records go to a fresh buffer in the meantime
+            writing = true;
+            batch = pendingRecords;
+            lastRecordInBatch = lastAddedRecord;
+            batchStart = durableLength;
+            pendingRecords = ByteBuffer.allocate(batch.capacity());
+        }
+        boolean written = false;
+        try {
+            batch.flip();
+            // the batch goes at the end of what is on disk, whatever a failed batch left after it
+            long writePosition = batchStart;
+            while (batch.hasRemaining()) {
+                writePosition += channel.write(batch, writePosition);
+            }
+            channel.force(false);
+            written = true;
+        } finally {
+            synchronized (this) {
+                writing = false;
+                if (written)
+                {
+                    lastDurableRecord = lastRecordInBatch;
+                    durableLength = batchStart + batch.limit();
+                }
+                else
+                {
+                    // put the batch back in front of the newer records, so the next writer tries again in the same place
+                    batch.rewind();
+                    pendingRecords.flip();
+                    ByteBuffer retryBuffer = ByteBuffer.allocate(batch.remaining() + pendingRecords.remaining() + (1 << 12));
+                    retryBuffer.put(batch).put(pendingRecords);
+                    pendingRecords = retryBuffer;
+                    cutOffFailedBatch(batchStart);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    // removes what a failed batch left on disk, so a crash before the next batch cannot replay it
+    // if even that fails, the next batch still overwrites it, since it is written at the same position
+    private void cutOffFailedBatch(long batchStart) {
+        try {
+            channel.truncate(batchStart);
+        } catch (IOException e) {
+            // the write error is the one passed on to the caller
+        }
+    }
+
+    /**
+     * this method replaces the journal with the records that rebuild the zoo as it is now, without the history
+     * the new journal is written to a separate file and moved over the old one, so a crash leaves one of them whole
+     * no other changes may be made to the zoo while it is compacted
+     * @param zoo the zoo this journal belongs to
+     * @throws IOException if the new journal cannot be written
+     */
+    void compact(Zoo zoo) throws IOException {
+        waitUntilDurable(getLastAddedRecord());
+        Path compactedPath = path.resolveSibling(path.getFileName() + ".compacted");
+        FileChannel compactedChannel = FileChannel.open(compactedPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ZooJournal compactedJournal = new ZooJournal(path, compactedChannel, 0);
+        try {
+            compactedJournal.recordZoo(zoo);
+            compactedJournal.waitUntilDurable(compactedJournal.getLastAddedRecord());
+        } catch (IOException e) {
+            compactedChannel.close();
+            Files.deleteIfExists(compactedPath);
+            throw e;
+        }
+        Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            channel.close();
+            channel = compactedChannel;
+            durableLength = compactedJournal.durableLength;
+        }
+    }
+
+    // records every area, connection and animal of the zoo, then its entrance fee and cash
+    private void recordZoo(Zoo zoo) {
+        for (int areaId = 1; areaId <= zoo.getHighestAreaId(); areaId++) {
+            IArea area = zoo.getArea(areaId);
+            if (area == null)
+            {
+                recordAreaSkipped();
+            }
+            else
+            {
+                recordAreaAdded(area);
+            }
+        }
+        AreaConnections connections = zoo.getAreaConnections();
+        for (int areaId = 0; areaId <= zoo.getHighestAreaId(); areaId++) {
+            if (zoo.getArea(areaId) != null)
+            {
+                int[] adjacentAreas = connections.getConnections(areaId);
+                for (int adjacentCounter = 0; adjacentCounter < connections.getNrConnections(areaId); adjacentCounter++) {
+                    recordAreasConnected(areaId, adjacentAreas[adjacentCounter]);
+                }
+            }
+        }
+        for (int areaId = 0; areaId <= zoo.getHighestAreaId(); areaId++) {
+            if (zoo.getArea(areaId) instanceof Habitats)
+            {
+                for (Animal inhabitant : ((Habitats) zoo.getArea(areaId)).getInhabitants()) {
+                    recordAnimalAdded(areaId, inhabitant);
+                }
+            }
+        }
+        recordEntranceFee(zoo.getEntranceFee());
+        recordCashSupply(zoo.getCashSupply());
+    }
+
+    // returns the number of the last record added, to wait for every record added so far
+    synchronized long getLastAddedRecord() {
+        return lastAddedRecord;
+    }
+
+    /**
+     * this method writes any remaining records and closes the journal file
+     * @throws IOException if the journal cannot be written
+     */
+    void close() throws IOException {
+        waitUntilDurable(getLastAddedRecord());
+        channel.close();
+    }
+
+    // ---------------- CASH HELPERS ----------------
+
+    private static ByteBuffer writeCash(ByteBuffer buffer, ICashCount cash) {
+        return buffer.putInt(cash.getNrNotes_20pounds()).putInt(cash.getNrNotes_10pounds()).putInt(cash.getNrNotes_5pounds())
+                .putInt(cash.getNrCoins_2pounds()).putInt(cash.getNrCoins_1pound()).putInt(cash.getNrCoins_50p())
+                .putInt(cash.getNrCoins_20p()).putInt(cash.getNrCoins_10p());
+    }
+
+    private static CashCount readCash(ByteBuffer buffer) {
+        CashCount cash = new CashCount();
+        cash.setNrNotes_20pounds(buffer.getInt());
+        cash.setNrNotes_10pounds(buffer.getInt());
+        cash.setNrNotes_5pounds(buffer.getInt());
+        cash.setNrCoins_2pounds(buffer.getInt());
+        cash.setNrCoins_1pound(buffer.getInt());
+        cash.setNrCoins_50p(buffer.getInt());
+        cash.setNrCoins_20p(buffer.getInt());
+        cash.setNrCoins_10p(buffer.getInt());
+        return cash;
+    }
+
+}
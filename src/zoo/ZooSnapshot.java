@@ -0,0 +1,310 @@
+package zoo;
+
+import animals.*;
+import areas.*;
+import dataStructures.AreaConnections;
+import dataStructures.CashCount;
+import dataStructures.ICashCount;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/** this class writes a zoo to a compact binary snapshot file, and reads it back
+ * the file is read through a memory mapping, and the connections are stored in compressed (CSR) form
+ * so they can be copied out in bulk instead of being parsed one by one
+ *
+ * layout (big-endian):
+ * - int MAGIC, int VERSION
+ * - int entrance fee in pence, 8 ints of ticket machine cash (from 20 pound notes down to 10p coins)
+ * - int highest area ID
+ * - for every area ID: byte area type (REMOVED if the slot is empty), int capacity (0 for non-habitats)
+ * - int number of connections, int[highest area ID + 2] start of every area's connections, int[] connected area IDs
+ * - for every habitat, in ID order: int number of inhabitants, then for every inhabitant:
+ *   byte species, int nickname length, the nickname in UTF-8
+ */
+class ZooSnapshot {
+
+    private static final int MAGIC = 0x5A4F4F53;
+    private static final int VERSION = 1;
+
+    // the area types, also used by the journal
+    static final byte REMOVED = 0;
+    static final byte ENTRANCE = 1;
+    static final byte PICNIC_AREA = 2;
+    static final byte ENCLOSURE = 3;
+    static final byte CAGE = 4;
+    static final byte AQUARIUM = 5;
+
+    // the size of the buffer the snapshot is written through
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private ZooSnapshot() {
+
+    }
+
+    // ---------------- SAVING ----------------
+
+    static void save(Zoo zoo, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            int highestAreaId = zoo.getHighestAreaId();
+            putInt(channel, buffer, MAGIC);
+            putInt(channel, buffer, VERSION);
+            putInt(channel, buffer, zoo.getEntranceFee());
+            ICashCount cash = zoo.getCashSupply();
+            int[] cashCounts = { cash.getNrNotes_20pounds(), cash.getNrNotes_10pounds(), cash.getNrNotes_5pounds(), cash.getNrCoins_2pounds(),
+                    cash.getNrCoins_1pound(), cash.getNrCoins_50p(), cash.getNrCoins_20p(), cash.getNrCoins_10p() };
+            for (int cashCount : cashCounts) {
+                putInt(channel, buffer, cashCount);
+            }
+            putInt(channel, buffer, highestAreaId);
+            for (int areaId = 0; areaId <= highestAreaId; areaId++) {
+                IArea area = zoo.getArea(areaId);
+                ensureSpace(channel, buffer, 5);
+                buffer.put(area == null ? REMOVED : areaType(area));
+                buffer.putInt(area instanceof Habitats ? ((Habitats) area).getCapacity() : 0);
+            }
+            // the connections, in compressed form
+            AreaConnections connections = zoo.getAreaConnections();
+            int nrConnections = 0;
+            for (int areaId = 0; areaId <= highestAreaId; areaId++) {
+                nrConnections += connections.getNrConnections(areaId);
+            }
+            putInt(channel, buffer, nrConnections);
+            int connectionsStart = 0;
+            for (int areaId = 0; areaId <= highestAreaId; areaId++) {
+                putInt(channel, buffer, connectionsStart);
+                connectionsStart += connections.getNrConnections(areaId);
+            }
+            putInt(channel, buffer, connectionsStart);
+            for (int areaId = 0; areaId <= highestAreaId; areaId++) {
+                int[] adjacentAreas = connections.getConnections(areaId);
+                for (int adjacentCounter = 0; adjacentCounter < connections.getNrConnections(areaId); adjacentCounter++) {
+                    putInt(channel, buffer, adjacentAreas[adjacentCounter]);
+                }
+            }
+            // the inhabitants of every habitat
+            for (int areaId = 0; areaId <= highestAreaId; areaId++) {
+                if (zoo.getArea(areaId) instanceof Habitats)
+                {
+                    ArrayList<Animal> inhabitants = ((Habitats) zoo.getArea(areaId)).getInhabitants();
+                    putInt(channel, buffer, inhabitants.size());
+                    for (Animal inhabitant : inhabitants) {
+                        byte[] nickname = inhabitant.getNickname().getBytes(StandardCharsets.UTF_8);
+                        ensureSpace(channel, buffer, 5);
+                        buffer.put(speciesCode(inhabitant));
+                        buffer.putInt(nickname.length);
+                        putBytes(channel, buffer, nickname);
+                    }
+                }
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        }
+    }
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        ensureSpace(channel, buffer, 4);
+        buffer.putInt(value);
+    }
+
+    private static void putBytes(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        int written = 0;
+        while (written < bytes.length) {
+            ensureSpace(channel, buffer, 1);
+            int length = Math.min(buffer.remaining(), bytes.length - written);
+            buffer.put(bytes, written, length);
+            written += length;
+        }
+    }
+
+    // writes the buffer to the file when fewer than the given number of bytes fit into it
+    private static void ensureSpace(FileChannel channel, ByteBuffer buffer, int nrBytes) throws IOException {
+        if (buffer.remaining() < nrBytes)
+        {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ---------------- LOADING ----------------
+
+    /**
+     * this method reads a zoo back from a snapshot file
+     * every count in the file is checked against the bytes left before it is used,
+     * so a file that was cut short or damaged is reported as an IOException instead of failing half way
+     * @param path the snapshot file
+     * @return the zoo that was saved
+     * @throws IOException if the file cannot be read or is not a whole zoo snapshot
+     */
+    static Zoo load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                throw new IOException("Not a zoo snapshot: " + path);
+            }
+            try {
+                return load(buffer);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Damaged zoo snapshot: " + path, e);
+            }
+        }
+    }
+
+    private static Zoo load(ByteBuffer buffer) throws IOException {
+        Zoo zoo = new Zoo();
+        int entranceFee = buffer.getInt();
+        checkFile(entranceFee >= 0, "negative entrance fee");
+        zoo.setEntranceFee(entranceFee / 100, entranceFee % 100);
+        CashCount cash = new CashCount();
+        cash.setNrNotes_20pounds(buffer.getInt());
+        cash.setNrNotes_10pounds(buffer.getInt());
+        cash.setNrNotes_5pounds(buffer.getInt());
+        cash.setNrCoins_2pounds(buffer.getInt());
+        cash.setNrCoins_1pound(buffer.getInt());
+        cash.setNrCoins_50p(buffer.getInt());
+        cash.setNrCoins_20p(buffer.getInt());
+        cash.setNrCoins_10p(buffer.getInt());
+        zoo.setCashSupply(cash);
+        int highestAreaId = buffer.getInt();
+        checkFile(highestAreaId >= 0 && (highestAreaId + 1L) * 5 <= buffer.remaining(), "area count larger than the file");
+        // the entrance (ID 0) already exists in a new zoo
+        checkFile(buffer.get() == ENTRANCE, "area 0 is not the entrance");
+        buffer.getInt();
+        for (int areaId = 1; areaId <= highestAreaId; areaId++) {
+            byte areaType = buffer.get();
+            int capacity = buffer.getInt();
+            checkFile(capacity >= 0, "negative capacity of area " + areaId);
+            checkFile(areaType != ENTRANCE, "a second entrance in area " + areaId);
+            if (areaType == REMOVED)
+            {
+                zoo.skipAreaId();
+            }
+            else
+            {
+                zoo.addArea(newArea(areaType, capacity));
+            }
+        }
+        // the connections are copied out of the mapping in bulk
+        int nrConnections = buffer.getInt();
+        checkFile(nrConnections >= 0 && 4L * (highestAreaId + 2L + nrConnections) <= buffer.remaining(), "connection count larger than the file");
+        int[] connectionsStart = new int[highestAreaId + 2];
+        int[] connectedAreaIds = new int[nrConnections];
+        IntBuffer intBuffer = buffer.asIntBuffer();
+        intBuffer.get(connectionsStart);
+        intBuffer.get(connectedAreaIds);
+        buffer.position(buffer.position() + 4 * (connectionsStart.length + connectedAreaIds.length));
+        checkFile(connectionsStart[0] == 0 && connectionsStart[highestAreaId + 1] == nrConnections, "connection starts do not match the count");
+        long[] packedConnections = new long[nrConnections];
+        for (int areaId = 0; areaId <= highestAreaId; areaId++) {
+            checkFile(connectionsStart[areaId] <= connectionsStart[areaId + 1] && connectionsStart[areaId + 1] <= nrConnections, "connection starts out of order");
+            for (int connectionCounter = connectionsStart[areaId]; connectionCounter < connectionsStart[areaId + 1]; connectionCounter++) {
+                int toAreaId = connectedAreaIds[connectionCounter];
+                checkFile(zoo.getArea(areaId) != null && zoo.getArea(toAreaId) != null, "connection of a missing area " + areaId + " -> " + toAreaId);
+                packedConnections[connectionCounter] = ((long) areaId << 32) | toAreaId;
+            }
+        }
+        // the connections are added in the order they were saved, so every area lists them in the same order as before
+        checkFile(zoo.connectAreasInBulk(packedConnections, nrConnections) == nrConnections, "duplicate connections");
+        for (int areaId = 0; areaId <= highestAreaId; areaId++) {
+            if (zoo.getArea(areaId) instanceof Habitats)
+            {
+                int nrInhabitants = buffer.getInt();
+                checkFile(nrInhabitants >= 0 && nrInhabitants <= ((Habitats) zoo.getArea(areaId)).getCapacity(), "more inhabitants than the capacity of area " + areaId);
+                for (int inhabitantCounter = 0; inhabitantCounter < nrInhabitants; inhabitantCounter++) {
+                    byte species = buffer.get();
+                    int nicknameLength = buffer.getInt();
+                    checkFile(nicknameLength >= 0 && nicknameLength <= buffer.remaining(), "nickname longer than the file");
+                    byte[] nickname = new byte[nicknameLength];
+                    buffer.get(nickname);
+                    // every inhabitant must still be one the habitat would admit: of the right species, with room and compatible
+                    byte admission = zoo.restoreAnimal(areaId, newAnimal(species, new String(nickname, StandardCharsets.UTF_8)));
+                    checkFile(admission == Codes.ANIMAL_ADDED, "inhabitant " + inhabitantCounter + " of area " + areaId
+                            + " would not be admitted (code " + admission + ")");
+                }
+            }
+        }
+        checkFile(!buffer.hasRemaining(), "bytes after the last inhabitant");
+        return zoo;
+    }
+
+    private static void checkFile(boolean condition, String problem) throws IOException {
+        if (!condition)
+        {
+            throw new IOException("Damaged zoo snapshot: " + problem);
+        }
+    }
+
+    // ---------------- TYPE CODES ----------------
+
+    // the area types follow the area kinds, leaving 0 for removed areas
+    static byte areaType(IArea area) {
+        return (byte) (((Areas) area).getAreaKind() + 1);
+    }
+
+    static IArea newArea(byte areaType, int capacity) {
+        switch (areaType) {
+            case ENTRANCE:
+                return new Entrance();
+            case PICNIC_AREA:
+                return new PicnicArea();
+            case ENCLOSURE:
+                return new Enclosure(capacity);
+            case CAGE:
+                return new Cage(capacity);
+            case AQUARIUM:
+                return new Aquarium(capacity);
+            default:
+                throw new IllegalArgumentException("Unknown area type: " + areaType);
+        }
+    }
+
+    // the species code is the animal's species ID, animals of an unknown species cannot be saved
+    static byte speciesCode(Animal animal) {
+        if (animal.getSpeciesId() == Animal.UNKNOWN_SPECIES)
+        {
+            throw new IllegalArgumentException("Animals of class " + animal.getClass().getName() + " cannot be saved");
+        }
+        return (byte) animal.getSpeciesId();
+    }
+
+    static Animal newAnimal(byte speciesCode, String nickname) {
+        switch (speciesCode) {
+            case Animal.LION:
+                return new Lion(nickname);
+            case Animal.ZEBRA:
+                return new Zebra(nickname);
+            case Animal.GAZELLE:
+                return new Gazelle(nickname);
+            case Animal.SHARK:
+                return new Shark(nickname);
+            case Animal.STARFISH:
+                return new Starfish(nickname);
+            case Animal.SEAL:
+                return new Seal(nickname);
+            case Animal.PARROT:
+                return new Parrot(nickname);
+            case Animal.BUZZARD:
+                return new Buzzard(nickname);
+            default:
+                throw new IllegalArgumentException("Unknown species: " + speciesCode);
+        }
+    }
+
+}
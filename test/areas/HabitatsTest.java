@@ -0,0 +1,32 @@
+package areas;
+
+import animals.Lion;
+
+/** this class checks the capacity checks and the nicknames shared by all habitats */
+public class HabitatsTest {
+
+    public static void main(String[] args) {
+        Habitats enclosure = new Enclosure(2);
+        check(!enclosure.isHabitatFull(new PicnicArea()), "a picnic area is never full");
+        check(!enclosure.isHabitatFull(new Entrance()), "the entrance is never full");
+        check(!enclosure.isHabitatFull(enclosure), "an empty habitat is not full");
+        String[] noNicknames = enclosure.getNicknames();
+        check(noNicknames.length == 0 && enclosure.getNicknames() == noNicknames, "an unchanged habitat shares its nicknames");
+        enclosure.addInhabitant(new Lion("Leo"));
+        String[] oneNickname = enclosure.getNicknames();
+        check(oneNickname.length == 1 && oneNickname[0].equals("Leo") && enclosure.getNicknames() == oneNickname,
+                "the nicknames are taken again once, after an inhabitant is added");
+        enclosure.addInhabitant(new Lion("Nala"));
+        check(enclosure.getNicknames().length == 2 && enclosure.getNicknames()[1].equals("Nala"), "the nicknames show every inhabitant added");
+        check(enclosure.isHabitatFull(enclosure), "a habitat at its capacity is full");
+        System.out.println("HabitatsTest OK");
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
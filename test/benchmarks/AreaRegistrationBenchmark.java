@@ -0,0 +1,76 @@
+package benchmarks;
+
+import areas.IArea;
+import areas.PicnicArea;
+import zoo.Zoo;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+
+/** this class measures building a zoo with Zoo.addArea, from 10000 to 10 million areas
+ * the time per area stays the same however many areas the zoo already has, so the build time grows linearly
+ * the time spent collecting garbage is shown apart, since every time the heap grows the collector copies every area made so far
+ * for the smaller zoos it is compared with the old registration, which scanned a HashMap of every area for duplicates
+ * (that takes quadratic time, so it is only run where it finishes in seconds)
+ */
+public class AreaRegistrationBenchmark {
+
+    private static final int[] NR_AREAS = { 10_000, 30_000, 100_000, 1_000_000, 10_000_000 };
+    private static final int MAX_SCANNED_AREAS = 30_000;
+
+    // the number of areas registered is added up here, so the builds cannot be left out by the compiler
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        // a first build of a million areas warms up the JVM
+        buildZoo(1_000_000);
+        buildScannedMap(MAX_SCANNED_AREAS);
+        System.out.println("     areas    build ms       gc ms  ns per area without gc  old scan ns per area");
+        for (int nrAreas : NR_AREAS) {
+            long gcMillisBefore = getGcMillis();
+            long buildNanos = buildZoo(nrAreas);
+            long gcMillis = getGcMillis() - gcMillisBefore;
+            String scanNanos = nrAreas <= MAX_SCANNED_AREAS ? String.format("%.1f", (double) buildScannedMap(nrAreas) / nrAreas) : "-";
+            System.out.printf("%10d  %10.1f  %10d  %22.1f  %20s%n", nrAreas, buildNanos / 1e6, gcMillis,
+                    (double) (buildNanos - gcMillis * 1_000_000) / nrAreas, scanNanos);
+        }
+        System.out.println("(checksum " + blackhole + ")");
+    }
+
+    // adds the areas to a new zoo, and returns the nanoseconds taken
+    private static long buildZoo(int nrAreas) {
+        long startTime = System.nanoTime();
+        Zoo zoo = new Zoo();
+        for (int areaCounter = 0; areaCounter < nrAreas; areaCounter++) {
+            blackhole += zoo.addArea(new PicnicArea());
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    // the milliseconds every garbage collector of the JVM has spent so far
+    private static long getGcMillis() {
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcMillis += collector.getCollectionTime();
+        }
+        return gcMillis;
+    }
+
+    // registers the areas as Zoo.addArea did before the identity index, and returns the nanoseconds taken
+    private static long buildScannedMap(int nrAreas) {
+        long startTime = System.nanoTime();
+        HashMap<Integer, IArea> zooAreas = new HashMap<>();
+        int areaId = 0;
+        for (int areaCounter = 0; areaCounter < nrAreas; areaCounter++) {
+            IArea area = new PicnicArea();
+            if (!zooAreas.containsValue(area))
+            {
+                zooAreas.put(++areaId, area);
+            }
+        }
+        blackhole += zooAreas.size();
+        return System.nanoTime() - startTime;
+    }
+
+}
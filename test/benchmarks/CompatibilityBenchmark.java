@@ -0,0 +1,156 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.Buzzard;
+import animals.Gazelle;
+import animals.Lion;
+import animals.Parrot;
+import animals.Seal;
+import animals.Shark;
+import animals.Starfish;
+import animals.Zebra;
+import areas.Aquarium;
+import areas.Enclosure;
+import areas.Habitats;
+
+import java.util.Random;
+
+/** this class compares the ways of checking a new animal against every inhabitant of a habitat, for habitats of 1 to 1000 animals
+ * - instanceof loop: every inhabitant's isCompatibleWith as it was before the species bitmasks, an instanceof chain per species
+ * - pairwise masks: every inhabitant's isCompatibleWith as it is now, one AND per inhabitant
+ * - habitat mask: Habitats.isCompatibleWithInhabitants, one AND for the whole habitat
+ */
+public class CompatibilityBenchmark {
+
+    private static final int[] NR_INHABITANTS = { 1, 10, 100, 1000 };
+    private static final int NR_CANDIDATES = 1024;
+    private static final long RUN_NANOS = 500_000_000L;
+
+    // the result of every check is added up here, so the checks cannot be left out by the compiler
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        Animal[] candidates = new Animal[NR_CANDIDATES];
+        for (int candidateCounter = 0; candidateCounter < NR_CANDIDATES; candidateCounter++) {
+            candidates[candidateCounter] = newAnimal(random.nextInt(Animal.NR_SPECIES));
+        }
+        System.out.println("inhabitants  instanceof loop ns  pairwise masks ns  habitat mask ns");
+        for (int nrInhabitants : NR_INHABITANTS) {
+            // zebras and gazelles, and sharks and starfish, every one of them compatible with the others
+            Habitats enclosure = new Enclosure(nrInhabitants);
+            Habitats aquarium = new Aquarium(nrInhabitants);
+            for (int inhabitantCounter = 0; inhabitantCounter < nrInhabitants; inhabitantCounter++) {
+                enclosure.addInhabitant(inhabitantCounter % 2 == 0 ? new Zebra("Zebra") : new Gazelle("Gazelle"));
+                aquarium.addInhabitant(inhabitantCounter % 2 == 0 ? new Shark("Shark") : new Starfish("Starfish"));
+            }
+            Habitats[] habitats = { enclosure, aquarium };
+            // the loops go through the inhabitants directly, as they did before, without copying them for every check
+            Animal[][] inhabitants = { enclosure.getInhabitants().toArray(new Animal[0]), aquarium.getInhabitants().toArray(new Animal[0]) };
+            double instanceofNanos = measure(candidates, (habitat, animal) -> instanceofLoop(inhabitants[habitat], animal));
+            double pairwiseNanos = measure(candidates, (habitat, animal) -> pairwiseLoop(inhabitants[habitat], animal));
+            double habitatNanos = measure(candidates, (habitat, animal) -> habitats[habitat].isCompatibleWithInhabitants(animal));
+            System.out.printf("%11d  %18.1f  %17.1f  %15.1f%n", nrInhabitants, instanceofNanos, pairwiseNanos, habitatNanos);
+        }
+        System.out.println("(checksum " + blackhole + ")");
+    }
+
+    // checks an animal against habitat 0 (the enclosure) or 1 (the aquarium)
+    private interface Check {
+        boolean isCompatible(int habitat, Animal animal);
+    }
+
+    // runs the check for the run time after the same time of warm-up, and returns the nanoseconds per check
+    private static double measure(Animal[] candidates, Check check) {
+        run(candidates, check, RUN_NANOS);
+        return run(candidates, check, RUN_NANOS);
+    }
+
+    private static double run(Animal[] candidates, Check check, long runNanos) {
+        long nrChecks = 0;
+        long startTime = System.nanoTime();
+        long elapsedNanos;
+        do {
+            for (int candidateCounter = 0; candidateCounter < NR_CANDIDATES; candidateCounter++) {
+                if (check.isCompatible(candidateCounter & 1, candidates[candidateCounter]))
+                {
+                    blackhole++;
+                }
+            }
+            nrChecks += NR_CANDIDATES;
+            elapsedNanos = System.nanoTime() - startTime;
+        } while (elapsedNanos < runNanos);
+        return (double) elapsedNanos / nrChecks;
+    }
+
+    private static boolean pairwiseLoop(Animal[] inhabitants, Animal animal) {
+        for (Animal inhabitant : inhabitants) {
+            if (!inhabitant.isCompatibleWith(animal))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean instanceofLoop(Animal[] inhabitants, Animal animal) {
+        for (Animal inhabitant : inhabitants) {
+            if (!isCompatibleByInstanceof(inhabitant, animal))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the instanceof chains of the species' isCompatibleWith methods before the species bitmasks
+    private static boolean isCompatibleByInstanceof(Animal inhabitant, Animal animal) {
+        if (inhabitant instanceof Lion)
+        {
+            return animal instanceof Lion;
+        }
+        if (inhabitant instanceof Zebra || inhabitant instanceof Gazelle)
+        {
+            return animal instanceof Gazelle || animal instanceof Zebra;
+        }
+        if (inhabitant instanceof Shark)
+        {
+            return animal instanceof Starfish || animal instanceof Shark;
+        }
+        if (inhabitant instanceof Starfish)
+        {
+            return animal instanceof Shark || animal instanceof Seal || animal instanceof Starfish;
+        }
+        if (inhabitant instanceof Seal)
+        {
+            return animal instanceof Starfish || animal instanceof Seal;
+        }
+        if (inhabitant instanceof Parrot)
+        {
+            return animal instanceof Parrot;
+        }
+        return animal instanceof Buzzard;
+    }
+
+    private static Animal newAnimal(int speciesId) {
+        switch (speciesId) {
+            case Animal.LION:
+                return new Lion("Lion");
+            case Animal.ZEBRA:
+                return new Zebra("Zebra");
+            case Animal.GAZELLE:
+                return new Gazelle("Gazelle");
+            case Animal.SHARK:
+                return new Shark("Shark");
+            case Animal.STARFISH:
+                return new Starfish("Starfish");
+            case Animal.SEAL:
+                return new Seal("Seal");
+            case Animal.PARROT:
+                return new Parrot("Parrot");
+            default:
+                return new Buzzard("Buzzard");
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.Lion;
+import areas.Enclosure;
+import zoo.Zoo;
+
+import java.util.Random;
+
+/** this class measures the animals added per second when 1 to 64 threads add lions to the same 4096 enclosures at once
+ * every run adds the same number of animals, split evenly between the threads, and the enclosures never fill up
+ */
+public class ConcurrentIntakeBenchmark {
+
+    private static final int[] NR_THREADS = { 1, 2, 4, 8, 16, 32, 64 };
+    private static final int NR_HABITATS = 4096;
+    private static final int NR_ANIMALS = 4_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        Animal[] lions = new Animal[1024];
+        for (int lionCounter = 0; lionCounter < lions.length; lionCounter++) {
+            lions[lionCounter] = new Lion("Lion" + lionCounter);
+        }
+        System.out.println("available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("threads  animals added/s");
+        // the first run warms up the JVM
+        measure(lions, 4);
+        for (int nrThreads : NR_THREADS) {
+            System.out.printf("%7d  %15.0f%n", nrThreads, measure(lions, nrThreads));
+        }
+    }
+
+    private static double measure(Animal[] lions, int nrThreads) throws InterruptedException {
+        Zoo zoo = new Zoo();
+        int[] areaIds = new int[NR_HABITATS];
+        for (int habitatCounter = 0; habitatCounter < NR_HABITATS; habitatCounter++) {
+            areaIds[habitatCounter] = zoo.addArea(new Enclosure(NR_ANIMALS));
+        }
+        Thread[] threads = new Thread[nrThreads];
+        for (int threadCounter = 0; threadCounter < nrThreads; threadCounter++) {
+            Random random = new Random(threadCounter);
+            threads[threadCounter] = new Thread(() -> {
+                for (int animalCounter = 0; animalCounter < NR_ANIMALS / nrThreads; animalCounter++) {
+                    zoo.addAnimal(areaIds[random.nextInt(NR_HABITATS)], lions[animalCounter & (lions.length - 1)]);
+                }
+            });
+        }
+        long startTime = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return (double) (NR_ANIMALS / nrThreads * nrThreads) * 1e9 / (System.nanoTime() - startTime);
+    }
+
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.Buzzard;
+import animals.Gazelle;
+import animals.Lion;
+import animals.Parrot;
+import animals.Seal;
+import animals.Shark;
+import animals.Starfish;
+import animals.Zebra;
+import areas.Aquarium;
+import areas.Cage;
+import areas.Enclosure;
+import areas.PicnicArea;
+import zoo.Zoo;
+
+import java.util.Random;
+
+/** this class measures Zoo.addAnimal on an intake of 10 million animals into 50000 areas
+ * the animals are of every species and go to random areas, so every result code is decided many times:
+ * picnic areas, wrong habitats, full habitats and incompatible inhabitants as well as animals added
+ */
+public class IntakeBenchmark {
+
+    private static final int NR_AREAS = 50_000;
+    private static final int CAPACITY = 20;
+    private static final int NR_ANIMALS = 10_000_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(21);
+        // a few animals of every species, added many times over, so the animals themselves take little memory
+        Animal[] animals = new Animal[1024];
+        for (int animalCounter = 0; animalCounter < animals.length; animalCounter++) {
+            animals[animalCounter] = newAnimal(animalCounter % Animal.NR_SPECIES, "Animal" + animalCounter);
+        }
+        int[] areaIds = new int[NR_AREAS];
+        int[] animalIndexes = new int[NR_ANIMALS];
+        int[] intakeAreaIds = new int[NR_ANIMALS];
+        for (int animalCounter = 0; animalCounter < NR_ANIMALS; animalCounter++) {
+            animalIndexes[animalCounter] = random.nextInt(animals.length);
+            intakeAreaIds[animalCounter] = random.nextInt(NR_AREAS);
+        }
+        // a first intake warms up the JVM, the second is measured
+        for (int run = 0; run < 2; run++) {
+            Zoo zoo = new Zoo();
+            for (int areaCounter = 0; areaCounter < NR_AREAS; areaCounter++) {
+                switch (areaCounter % 4) {
+                    case 0:
+                        areaIds[areaCounter] = zoo.addArea(new Enclosure(CAPACITY));
+                        break;
+                    case 1:
+                        areaIds[areaCounter] = zoo.addArea(new Cage(CAPACITY));
+                        break;
+                    case 2:
+                        areaIds[areaCounter] = zoo.addArea(new Aquarium(CAPACITY));
+                        break;
+                    default:
+                        areaIds[areaCounter] = zoo.addArea(new PicnicArea());
+                }
+            }
+            long[] nrResults = new long[5];
+            long startTime = System.nanoTime();
+            for (int animalCounter = 0; animalCounter < NR_ANIMALS; animalCounter++) {
+                nrResults[zoo.addAnimal(areaIds[intakeAreaIds[animalCounter]], animals[animalIndexes[animalCounter]])]++;
+            }
+            long nanos = System.nanoTime() - startTime;
+            System.out.printf("%s: %d animals in %d ms, %.1f ns per animal%n", run == 0 ? "warm-up" : "measured",
+                    NR_ANIMALS, nanos / 1_000_000, (double) nanos / NR_ANIMALS);
+            if (run == 1)
+            {
+                System.out.printf("added %d, not a habitat %d, wrong habitat %d, habitat full %d, incompatible inhabitants %d%n",
+                        nrResults[0], nrResults[1], nrResults[2], nrResults[3], nrResults[4]);
+            }
+        }
+    }
+
+    private static Animal newAnimal(int speciesId, String nickname) {
+        switch (speciesId) {
+            case Animal.LION:
+                return new Lion(nickname);
+            case Animal.ZEBRA:
+                return new Zebra(nickname);
+            case Animal.GAZELLE:
+                return new Gazelle(nickname);
+            case Animal.SHARK:
+                return new Shark(nickname);
+            case Animal.STARFISH:
+                return new Starfish(nickname);
+            case Animal.SEAL:
+                return new Seal(nickname);
+            case Animal.PARROT:
+                return new Parrot(nickname);
+            default:
+                return new Buzzard(nickname);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import dataStructures.CashCount;
+import zoo.Zoo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/** this class measures the payments per second of a zoo with and without a journal, from 1 to 64 paying threads
+ * every payment pays the £10 entrance fee with one £10 note, and each run lasts for a fixed time
+ * with the journal, every payment is on disk before it returns, and concurrent payments share one fsync
+ */
+public class JournalBenchmark {
+
+    private static final long RUN_MILLIS = 2000;
+    private static final int[] NR_THREADS = { 1, 4, 16, 64 };
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("threads  plain payments/s  journaled payments/s");
+        for (int nrThreads : NR_THREADS) {
+            double plainRate = measure(new Zoo(), nrThreads);
+            Path path = Files.createTempFile("journal", ".zoo");
+            Zoo journaledZoo = Zoo.openJournal(path);
+            double journaledRate = measure(journaledZoo, nrThreads);
+            journaledZoo.closeJournal();
+            Files.delete(path);
+            System.out.printf("%7d  %16.0f  %20.0f%n", nrThreads, plainRate, journaledRate);
+        }
+    }
+
+    // runs the given number of threads paying for the run time, and returns the payments made per second
+    private static double measure(Zoo zoo, int nrThreads) throws InterruptedException {
+        zoo.setEntranceFee(10, 0);
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder nrPayments = new LongAdder();
+        Thread[] threads = new Thread[nrThreads];
+        for (int threadCounter = 0; threadCounter < nrThreads; threadCounter++) {
+            threads[threadCounter] = new Thread(() -> {
+                while (running.get()) {
+                    CashCount cashInserted = new CashCount();
+                    cashInserted.setNrNotes_10pounds(1);
+                    zoo.payEntranceFee(cashInserted);
+                    nrPayments.increment();
+                }
+            });
+        }
+        long startTime = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return nrPayments.sum() * 1e9 / (System.nanoTime() - startTime);
+    }
+
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import areas.PicnicArea;
+import zoo.Zoo;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/** this class interleaves changes to a zoo with queries for its unreachable areas, as a dashboard polling a changing zoo would
+ * every round makes a number of random changes (connecting areas, removing areas, adding areas) and then asks for the unreachable areas
+ * - kept up to date: Zoo.findUnreachableAreas, which reads the reachable areas the changes kept up to date
+ * - full search: Zoo.findUnreachableAreasInParallel, which searches the whole zoo from the entrance again, as every query used to
+ * the changes are timed apart, they include keeping the reachable areas up to date, which the full search does not need
+ */
+public class ReachabilityBenchmark {
+
+    private static final int[] NR_AREAS = { 100_000, 1_000_000 };
+    private static final int[] CHANGES_PER_QUERY = { 1, 10, 100 };
+    private static final int NR_ROUNDS = 200;
+    // every area is connected from one area added before it, so most areas start out reachable, and to a few random areas
+    private static final int NR_RANDOM_CONNECTIONS = 2;
+
+    public static void main(String[] args) {
+        // a first run on a small zoo warms up the JVM
+        run(10_000, 10, new Random(0));
+        System.out.println("     areas  changes/query  change us  kept up to date query us  full search query us  unreachable");
+        for (int nrAreas : NR_AREAS) {
+            for (int changesPerQuery : CHANGES_PER_QUERY) {
+                System.out.println(run(nrAreas, changesPerQuery, new Random(4)));
+            }
+        }
+    }
+
+    // runs the rounds on a new zoo, and returns the line of the table with the results
+    private static String run(int nrAreas, int changesPerQuery, Random random) {
+        Zoo zoo = new Zoo();
+        for (int areaCounter = 1; areaCounter <= nrAreas; areaCounter++) {
+            int areaId = zoo.addArea(new PicnicArea());
+            zoo.connectAreas(random.nextInt(areaId), areaId);
+        }
+        for (int areaId = 1; areaId <= nrAreas; areaId++) {
+            for (int connectionCounter = 0; connectionCounter < NR_RANDOM_CONNECTIONS; connectionCounter++) {
+                zoo.connectAreas(areaId, 1 + random.nextInt(nrAreas));
+            }
+        }
+        int highestAreaId = nrAreas;
+        long changeNanos = 0;
+        long keptNanos = 0;
+        long fullNanos = 0;
+        int nrUnreachable = 0;
+        for (int round = 0; round < NR_ROUNDS; round++) {
+            long startTime = System.nanoTime();
+            for (int changeCounter = 0; changeCounter < changesPerQuery; changeCounter++) {
+                int change = random.nextInt(10);
+                if (change < 6)
+                {
+                    int fromAreaId = random.nextInt(highestAreaId + 1);
+                    int toAreaId = 1 + random.nextInt(highestAreaId);
+                    if (zoo.getArea(fromAreaId) != null && zoo.getArea(toAreaId) != null)
+                    {
+                        zoo.connectAreas(fromAreaId, toAreaId);
+                    }
+                }
+                else if (change < 8)
+                {
+                    zoo.removeArea(1 + random.nextInt(highestAreaId));
+                }
+                else
+                {
+                    highestAreaId = zoo.addArea(new PicnicArea());
+                }
+            }
+            long queryStartTime = System.nanoTime();
+            ArrayList<Integer> keptUnreachable = zoo.findUnreachableAreas();
+            long fullStartTime = System.nanoTime();
+            ArrayList<Integer> searchedUnreachable = zoo.findUnreachableAreasInParallel();
+            long endTime = System.nanoTime();
+            changeNanos += queryStartTime - startTime;
+            keptNanos += fullStartTime - queryStartTime;
+            fullNanos += endTime - fullStartTime;
+            if (!keptUnreachable.equals(searchedUnreachable))
+            {
+                throw new AssertionError("the areas kept up to date differ from those searched in round " + round);
+            }
+            nrUnreachable = keptUnreachable.size();
+        }
+        return String.format("%10d  %13d  %9.2f  %24.1f  %20.1f  %11d", nrAreas, changesPerQuery,
+                changeNanos / 1000.0 / (NR_ROUNDS * changesPerQuery), keptNanos / 1000.0 / NR_ROUNDS, fullNanos / 1000.0 / NR_ROUNDS, nrUnreachable);
+    }
+
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.Lion;
+import areas.Enclosure;
+import areas.Habitats;
+import areas.IArea;
+import zoo.Zoo;
+
+import java.util.ArrayList;
+
+/** this class measures visits along a path of 10 habitats, for habitats of 1 to 1000 animals
+ * - per animal: the visit as it was before the nickname snapshots, asking every inhabitant for its nickname
+ * - snapshot: Zoo.visit, which copies every habitat's array of nicknames in one go
+ */
+public class VisitBenchmark {
+
+    private static final int[] NR_INHABITANTS = { 1, 10, 100, 1000 };
+    private static final int NR_HABITATS = 10;
+    private static final long RUN_NANOS = 500_000_000L;
+
+    // the number of animals seen is added up here, so the visits cannot be left out by the compiler
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        System.out.println("inhabitants  per animal ns/animal  snapshot ns/animal");
+        for (int nrInhabitants : NR_INHABITANTS) {
+            Zoo zoo = new Zoo();
+            ArrayList<Integer> path = new ArrayList<>();
+            path.add(0);
+            for (int habitatCounter = 0; habitatCounter < NR_HABITATS; habitatCounter++) {
+                int areaId = zoo.addArea(new Enclosure(nrInhabitants));
+                zoo.connectAreas(path.get(path.size() - 1), areaId);
+                path.add(areaId);
+                for (int lionCounter = 0; lionCounter < nrInhabitants; lionCounter++) {
+                    zoo.addAnimal(areaId, new Lion("Lion" + areaId + "." + lionCounter));
+                }
+            }
+            int nrAnimalsSeen = NR_HABITATS * nrInhabitants;
+            if (!zoo.visit(path).equals(visitPerAnimal(zoo, path)))
+            {
+                throw new AssertionError("both visits see the same animals");
+            }
+            double perAnimalNanos = measure(() -> visitPerAnimal(zoo, path).size()) / nrAnimalsSeen;
+            double snapshotNanos = measure(() -> zoo.visit(path).size()) / nrAnimalsSeen;
+            System.out.printf("%11d  %20.2f  %18.2f%n", nrInhabitants, perAnimalNanos, snapshotNanos);
+        }
+        System.out.println("(checksum " + blackhole + ")");
+    }
+
+    // one visit, returning the number of animals seen
+    private interface Visit {
+        int run();
+    }
+
+    // runs the visits for the run time after the same time of warm-up, and returns the nanoseconds per visit
+    private static double measure(Visit visit) {
+        run(visit);
+        return run(visit);
+    }
+
+    private static double run(Visit visit) {
+        long nrVisits = 0;
+        long startTime = System.nanoTime();
+        long elapsedNanos;
+        do {
+            blackhole += visit.run();
+            nrVisits++;
+            elapsedNanos = System.nanoTime() - startTime;
+        } while (elapsedNanos < RUN_NANOS);
+        return (double) elapsedNanos / nrVisits;
+    }
+
+    // the visit before the nickname snapshots: the path is checked the same way, then every inhabitant gives its nickname
+    private static ArrayList<String> visitPerAnimal(Zoo zoo, ArrayList<Integer> path) {
+        if (!zoo.isPathAllowed(path))
+        {
+            return null;
+        }
+        ArrayList<String> animalsSeen = new ArrayList<>();
+        for (int areaId : path) {
+            IArea area = zoo.getArea(areaId);
+            if (area instanceof Habitats)
+            {
+                for (Animal inhabitant : ((Habitats) area).getInhabitants()) {
+                    animalsSeen.add(inhabitant.getNickname());
+                }
+            }
+        }
+        return animalsSeen;
+    }
+
+}
@@ -0,0 +1,234 @@
+package dataStructures;
+
+import areas.PicnicArea;
+import zoo.Zoo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/** this class churns the connections through a million random additions and removals of areas and connections,
+ * checking them against a simple model of lists, checks that removing the spokes of a hub takes linear time,
+ * and measures the memory the zoo uses per connection against the two boxed lists every connection used to be stored in
+ */
+public class AreaConnectionsTest {
+
+    private static final int NR_AREA_IDS = 2000;
+    private static final int NR_OPERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        churnMatchesModel();
+        bulkConnectionsMatchModel();
+        hubRemovalIsLinear();
+        connectionsTakeLittleMemory();
+        System.out.println("AreaConnectionsTest OK");
+    }
+
+    private static void churnMatchesModel() {
+        Random random = new Random(42);
+        AreaConnections connections = new AreaConnections();
+        // the model: the connections out of and into every area, null for areas that do not exist
+        HashMap<Integer, ArrayList<Integer>> outgoing = new HashMap<>();
+        HashMap<Integer, ArrayList<Integer>> incoming = new HashMap<>();
+        // area 0 is a hub, most connections start or end there
+        addArea(connections, outgoing, incoming, 0);
+        for (int operationCounter = 1; operationCounter <= NR_OPERATIONS; operationCounter++) {
+            int operation = random.nextInt(10);
+            int areaId = 1 + random.nextInt(NR_AREA_IDS - 1);
+            if (!outgoing.containsKey(areaId))
+            {
+                addArea(connections, outgoing, incoming, areaId);
+            }
+            else if (operation == 0)
+            {
+                connections.removeArea(areaId);
+                for (int toAreaId : outgoing.remove(areaId)) {
+                    incoming.get(toAreaId).remove(Integer.valueOf(areaId));
+                }
+                for (int fromAreaId : incoming.remove(areaId)) {
+                    if (fromAreaId != areaId)
+                    {
+                        outgoing.get(fromAreaId).remove(Integer.valueOf(areaId));
+                    }
+                }
+            }
+            else
+            {
+                // connections to and from the hub, between random areas, and the odd duplicate or loop
+                int otherAreaId = operation < 5 ? 0 : random.nextInt(NR_AREA_IDS);
+                if (outgoing.containsKey(otherAreaId))
+                {
+                    int fromAreaId = operation % 2 == 0 ? areaId : otherAreaId;
+                    int toAreaId = operation % 2 == 0 ? otherAreaId : areaId;
+                    connections.addConnection(fromAreaId, toAreaId);
+                    outgoing.get(fromAreaId).add(toAreaId);
+                    incoming.get(toAreaId).add(fromAreaId);
+                }
+            }
+            if (operationCounter % 100_000 == 0)
+            {
+                checkMatchesModel(connections, outgoing, incoming);
+            }
+        }
+        // the hub must be long enough for its segments to be indexed, or the index was not tested
+        check(connections.getNrConnections(0) > 512 && connections.getNrIncomingConnections(0) > 512, "the hub grew long enough to be indexed");
+    }
+
+    private static void bulkConnectionsMatchModel() {
+        Random random = new Random(3);
+        AreaConnections connections = new AreaConnections();
+        HashMap<Integer, ArrayList<Integer>> outgoing = new HashMap<>();
+        HashMap<Integer, ArrayList<Integer>> incoming = new HashMap<>();
+        for (int areaId = 0; areaId < 500; areaId++) {
+            addArea(connections, outgoing, incoming, areaId);
+        }
+        for (int round = 0; round < 20; round++) {
+            long[] packedConnections = new long[2000];
+            for (int connectionCounter = 0; connectionCounter < packedConnections.length; connectionCounter++) {
+                int fromAreaId = random.nextInt(4) == 0 ? 0 : random.nextInt(500);
+                int toAreaId = random.nextInt(4) == 0 ? 0 : random.nextInt(500);
+                packedConnections[connectionCounter] = ((long) fromAreaId << 32) | toAreaId;
+                outgoing.get(fromAreaId).add(toAreaId);
+                incoming.get(toAreaId).add(fromAreaId);
+            }
+            connections.addConnections(packedConnections, packedConnections.length);
+            int removedAreaId = 1 + random.nextInt(499);
+            connections.removeArea(removedAreaId);
+            for (int toAreaId : outgoing.get(removedAreaId)) {
+                incoming.get(toAreaId).remove(Integer.valueOf(removedAreaId));
+            }
+            for (int fromAreaId : incoming.get(removedAreaId)) {
+                if (fromAreaId != removedAreaId)
+                {
+                    outgoing.get(fromAreaId).remove(Integer.valueOf(removedAreaId));
+                }
+            }
+            // the area comes back empty, so the model keeps every ID
+            connections.addArea(removedAreaId);
+            outgoing.put(removedAreaId, new ArrayList<>());
+            incoming.put(removedAreaId, new ArrayList<>());
+            checkMatchesModel(connections, outgoing, incoming);
+        }
+    }
+
+    // removing every spoke of a hub must take about the same time per spoke, whatever the number of spokes
+    private static void hubRemovalIsLinear() {
+        long smallHubNanos = Long.MAX_VALUE;
+        long largeHubNanos = Long.MAX_VALUE;
+        // the fastest of a few runs, so a pause of the JVM does not decide the result
+        for (int run = 0; run < 5; run++) {
+            smallHubNanos = Math.min(smallHubNanos, timeHubRemoval(40_000));
+            largeHubNanos = Math.min(largeHubNanos, timeHubRemoval(320_000));
+        }
+        System.out.println("removing 40000 spokes: " + smallHubNanos / 1000 + "us, 320000 spokes: " + largeHubNanos / 1000 + "us");
+        // linear time gives a ratio of 8 (a little more once the hub no longer fits in the cache), a scan of the hub would give 64
+        check(largeHubNanos < smallHubNanos * 32, "removing the spokes of a hub takes linear time");
+    }
+
+    private static long timeHubRemoval(int nrSpokes) {
+        AreaConnections connections = new AreaConnections();
+        connections.addArea(0);
+        for (int spokeId = 1; spokeId <= nrSpokes; spokeId++) {
+            connections.addArea(spokeId);
+            connections.addConnection(0, spokeId);
+            connections.addConnection(spokeId, 0);
+        }
+        long startTime = System.nanoTime();
+        for (int spokeId = 1; spokeId <= nrSpokes; spokeId++) {
+            connections.removeArea(spokeId);
+        }
+        long nanos = System.nanoTime() - startTime;
+        check(connections.getNrConnections(0) == 0 && connections.getNrIncomingConnections(0) == 0, "the hub has no connections left");
+        return nanos;
+    }
+
+    /**
+     * every connection used to be added to a boxed list of the zoo and to one of the area, as two Integer objects
+     * a million random connections between 50,000 areas are stored both ways, and the heap measured after each
+     * the connections are now stored twice as well (out of and into every area), but as plain ints
+     */
+    // measured through the zoo, so everything it keeps per connection is counted, not only this store
+    private static void connectionsTakeLittleMemory() {
+        int nrAreas = 50_000;
+        int nrConnections = 1_000_000;
+        Random random = new Random(5);
+        int[] fromAreaIds = new int[nrConnections];
+        int[] toAreaIds = new int[nrConnections];
+        for (int connectionCounter = 0; connectionCounter < nrConnections; connectionCounter++) {
+            fromAreaIds[connectionCounter] = 1 + random.nextInt(nrAreas);
+            toAreaIds[connectionCounter] = 1 + random.nextInt(nrAreas);
+        }
+        // the lists are made before measuring, so only the memory taken by the connections themselves is counted
+        ArrayList<ArrayList<Integer>> zooLists = new ArrayList<>();
+        ArrayList<ArrayList<Integer>> areaLists = new ArrayList<>();
+        for (int areaId = 0; areaId <= nrAreas; areaId++) {
+            zooLists.add(new ArrayList<>());
+            areaLists.add(new ArrayList<>());
+        }
+        long usedBefore = usedMemory();
+        for (int connectionCounter = 0; connectionCounter < nrConnections; connectionCounter++) {
+            zooLists.get(fromAreaIds[connectionCounter]).add(toAreaIds[connectionCounter]);
+            areaLists.get(fromAreaIds[connectionCounter]).add(toAreaIds[connectionCounter]);
+        }
+        double boxedBytes = (double) (usedMemory() - usedBefore) / nrConnections;
+        check(zooLists.size() + areaLists.size() == 2 * (nrAreas + 1), "the boxed lists are kept until measured");
+        zooLists = null;
+        areaLists = null;
+        Zoo zoo = new Zoo();
+        for (int areaCounter = 0; areaCounter < nrAreas; areaCounter++) {
+            zoo.addArea(new PicnicArea());
+        }
+        usedBefore = usedMemory();
+        for (int connectionCounter = 0; connectionCounter < nrConnections; connectionCounter++) {
+            zoo.connectAreas(fromAreaIds[connectionCounter], toAreaIds[connectionCounter]);
+        }
+        double primitiveBytes = (double) (usedMemory() - usedBefore) / nrConnections;
+        check(zoo.getArea(fromAreaIds[0]) != null, "the zoo is kept until measured");
+        System.out.printf("bytes per connection: %.1f boxed, %.1f primitive (%.1fx less)%n", boxedBytes, primitiveBytes, boxedBytes / primitiveBytes);
+        check(boxedBytes >= primitiveBytes * 4, "the connections take at least 4 times less memory than the boxed lists");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int gcCounter = 0; gcCounter < 4; gcCounter++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void addArea(AreaConnections connections, HashMap<Integer, ArrayList<Integer>> outgoing,
+                                HashMap<Integer, ArrayList<Integer>> incoming, int areaId) {
+        connections.addArea(areaId);
+        outgoing.put(areaId, new ArrayList<>());
+        incoming.put(areaId, new ArrayList<>());
+    }
+
+    // the order of a segment is not kept, so the segments and the model are compared sorted
+    private static void checkMatchesModel(AreaConnections connections, HashMap<Integer, ArrayList<Integer>> outgoing,
+                                          HashMap<Integer, ArrayList<Integer>> incoming) {
+        for (int areaId = 0; areaId < NR_AREA_IDS; areaId++) {
+            ArrayList<Integer> expectedOutgoing = outgoing.getOrDefault(areaId, new ArrayList<>());
+            ArrayList<Integer> expectedIncoming = incoming.getOrDefault(areaId, new ArrayList<>());
+            checkSegment(connections.getConnections(areaId), 0, connections.getNrConnections(areaId), expectedOutgoing, "out of area " + areaId);
+            checkSegment(connections.getIncomingConnections(areaId), connections.getIncomingConnectionsStart(areaId),
+                    connections.getNrIncomingConnections(areaId), expectedIncoming, "into area " + areaId);
+        }
+    }
+
+    private static void checkSegment(int[] segment, int start, int size, ArrayList<Integer> expected, String description) {
+        int[] actualIds = Arrays.copyOfRange(segment, start, start + size);
+        int[] expectedIds = expected.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(actualIds);
+        Arrays.sort(expectedIds);
+        check(Arrays.equals(actualIds, expectedIds), "the connections " + description + " match the model");
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
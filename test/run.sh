@@ -0,0 +1,18 @@
+#!/bin/sh
+# compiles the zoo with its tests and benchmarks, then runs every test (the classes named *Test)
+# a benchmark is run by naming it: test/run.sh benchmarks.JournalBenchmark
+# the tests run as if on four processors, so the parallel code paths are taken even on a single-processor machine
+cd "$(dirname "$0")/.." || exit 1
+OUT=build/test-classes
+rm -rf "$OUT"
+javac -Xlint:all -Werror -encoding UTF-8 -d "$OUT" $(find src test -name '*.java') || exit 1
+if [ $# -gt 0 ]
+then
+    for benchmark in "$@"; do
+        java -cp "$OUT" "$benchmark" || exit 1
+    done
+    exit 0
+fi
+for test in $(cd test && find . -name '*Test.java' | sed 's|^\./||; s|\.java$||; s|/|.|g' | sort); do
+    java -XX:ActiveProcessorCount=4 -cp "$OUT" "$test" || exit 1
+done
@@ -0,0 +1,121 @@
+package zoo;
+
+import areas.PicnicArea;
+
+import java.util.ArrayList;
+
+/** this class checks the maximum flow and the minimum cut of small zoos worked out by hand,
+ * and that negative capacities are rejected
+ */
+public class CapacityPlannerTest {
+
+    public static void main(String[] args) {
+        defaultCapacitiesAddUp();
+        connectionCapacitiesLimitTheFlow();
+        areaCapacitiesLimitTheFlow();
+        negativeCapacitiesAreRejected();
+        System.out.println("CapacityPlannerTest OK");
+    }
+
+    // two routes to area 2, 0 -> 2 and 0 -> 1 -> 2, each letting through the default capacity
+    private static void defaultCapacitiesAddUp() {
+        Zoo zoo = newZoo(2);
+        zoo.connectAreas(0, 1);
+        zoo.connectAreas(1, 2);
+        zoo.connectAreas(0, 2);
+        CapacityPlanner planner = new CapacityPlanner(zoo, 5);
+        check(planner.findMaxFlow(new int[] { 2 }) == 10, "two routes of capacity 5 let through 10 visitors");
+    }
+
+    // the zoo from the textbook example of Ford and Fulkerson's method: 23 visitors get from the entrance (0) to area 5,
+    // limited by the connections 1 -> 3, 4 -> 3 and 4 -> 5, whose capacities 12, 7 and 4 add up to 23
+    private static void connectionCapacitiesLimitTheFlow() {
+        Zoo zoo = newZoo(5);
+        CapacityPlanner planner = new CapacityPlanner(zoo, 1000);
+        connect(zoo, planner, 0, 1, 16);
+        connect(zoo, planner, 0, 2, 13);
+        connect(zoo, planner, 1, 2, 10);
+        connect(zoo, planner, 2, 1, 4);
+        // given a capacity twice, only the second one counts
+        connect(zoo, planner, 1, 3, 5);
+        connect(zoo, planner, 1, 3, 12);
+        connect(zoo, planner, 3, 2, 9);
+        connect(zoo, planner, 2, 4, 14);
+        connect(zoo, planner, 4, 3, 7);
+        connect(zoo, planner, 3, 5, 20);
+        connect(zoo, planner, 4, 5, 4);
+        check(planner.findMaxFlow(new int[] { 5 }) == 23, "the maximum flow is 23");
+        check(toString(planner.getMinCutConnections()).equals("[1->3, 4->3, 4->5]"), "the minimum cut is 1 -> 3, 4 -> 3 and 4 -> 5");
+        check(planner.getMinCutAreas().isEmpty(), "no area limits the flow");
+        // area 3 letting through only 10 visitors leaves 10 through it and 4 along 4 -> 5
+        planner.setAreaCapacity(3, 10);
+        check(planner.findMaxFlow(new int[] { 5 }) == 14, "the maximum flow through a narrower area 3 is 14");
+        check(planner.getMinCutAreas().size() == 1 && planner.getMinCutAreas().get(0) == 3, "area 3 limits the flow");
+        check(toString(planner.getMinCutConnections()).equals("[4->5]"), "and so does the connection 4 -> 5");
+    }
+
+    // a chain of three areas, the narrowest of which decides the flow
+    private static void areaCapacitiesLimitTheFlow() {
+        Zoo zoo = newZoo(3);
+        zoo.connectAreas(0, 1);
+        zoo.connectAreas(1, 2);
+        zoo.connectAreas(2, 3);
+        CapacityPlanner planner = new CapacityPlanner(zoo, 100);
+        planner.setAreaCapacity(1, 50);
+        planner.setAreaCapacity(2, 30);
+        check(planner.findMaxFlow(new int[] { 3 }) == 30, "the narrowest area lets through 30 visitors");
+        check(planner.getMinCutAreas().size() == 1 && planner.getMinCutAreas().get(0) == 2, "area 2 limits the flow");
+        // an area with no capacity left stops the flow
+        planner.setAreaCapacity(2, 0);
+        check(planner.findMaxFlow(new int[] { 3 }) == 0, "an area that lets no one through stops the flow");
+    }
+
+    private static void negativeCapacitiesAreRejected() {
+        Zoo zoo = newZoo(1);
+        CapacityPlanner planner = new CapacityPlanner(zoo, 1);
+        check(isRejected(() -> planner.setConnectionCapacity(0, 1, -1)), "a negative connection capacity is rejected");
+        check(isRejected(() -> planner.setAreaCapacity(1, -1)), "a negative area capacity is rejected");
+        check(isRejected(() -> new CapacityPlanner(zoo, -1)), "a negative default capacity is rejected");
+        check(planner.findMaxFlow(new int[] { 1 }) == 0, "the rejected capacities were not kept");
+    }
+
+    private static boolean isRejected(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static Zoo newZoo(int nrAreas) {
+        Zoo zoo = new Zoo();
+        for (int areaCounter = 0; areaCounter < nrAreas; areaCounter++) {
+            zoo.addArea(new PicnicArea());
+        }
+        return zoo;
+    }
+
+    private static void connect(Zoo zoo, CapacityPlanner planner, int fromAreaId, int toAreaId, int capacity) {
+        zoo.connectAreas(fromAreaId, toAreaId);
+        planner.setConnectionCapacity(fromAreaId, toAreaId, capacity);
+    }
+
+    // the connections sorted, as "from->to"
+    private static String toString(ArrayList<int[]> connections) {
+        ArrayList<String> names = new ArrayList<>();
+        for (int[] connection : connections) {
+            names.add(connection[0] + "->" + connection[1]);
+        }
+        names.sort(null);
+        return names.toString();
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package zoo;
+
+import animals.Animal;
+import animals.Buzzard;
+import animals.Gazelle;
+import animals.Lion;
+import animals.Parrot;
+import animals.Seal;
+import animals.Shark;
+import animals.Starfish;
+import animals.Zebra;
+import areas.Aquarium;
+import areas.Cage;
+import areas.Enclosure;
+import areas.Habitats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** this class adds animals to the same habitats from many threads at once, with addAnimal and addAnimals,
+ * and checks that no habitat goes over its capacity, that no animal is refused for a reason that was not true,
+ * and that the nickname index and the journal hold exactly the animals that were added
+ */
+public class ConcurrentIntakeTest {
+
+    private static final int NR_THREADS = 16;
+    private static final int NR_HABITATS = 30;
+    private static final int CAPACITY = 50;
+    private static final int NR_ANIMALS_PER_THREAD = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        Path path = Files.createTempFile("journal", ".zoo");
+        Zoo zoo = Zoo.openJournal(path);
+        for (int habitatCounter = 0; habitatCounter < NR_HABITATS; habitatCounter++) {
+            switch (habitatCounter % 3) {
+                case 0:
+                    zoo.addArea(new Enclosure(CAPACITY));
+                    break;
+                case 1:
+                    zoo.addArea(new Cage(CAPACITY));
+                    break;
+                default:
+                    zoo.addArea(new Aquarium(CAPACITY));
+            }
+        }
+        AtomicIntegerArray nrAdded = new AtomicIntegerArray(NR_HABITATS + 1);
+        AtomicIntegerArray refusedAsFull = new AtomicIntegerArray(NR_HABITATS + 1);
+        // the animals refused as incompatible, to check against the habitat afterwards
+        List<List<Animal>> refusedAsIncompatible = new ArrayList<>();
+        AtomicLong nrResults = new AtomicLong();
+        Thread[] threads = new Thread[NR_THREADS];
+        for (int threadCounter = 0; threadCounter < NR_THREADS; threadCounter++) {
+            List<Animal> incompatibleAnimals = new ArrayList<>();
+            refusedAsIncompatible.add(incompatibleAnimals);
+            Random random = new Random(threadCounter);
+            int threadId = threadCounter;
+            threads[threadCounter] = new Thread(() -> {
+                for (int animalCounter = 0; animalCounter < NR_ANIMALS_PER_THREAD; ) {
+                    int areaId = 1 + random.nextInt(NR_HABITATS);
+                    // every other batch goes through addAnimals
+                    int batchSize = Math.min(random.nextBoolean() ? 1 : 1 + random.nextInt(8), NR_ANIMALS_PER_THREAD - animalCounter);
+                    List<Animal> animals = new ArrayList<>();
+                    for (int batchCounter = 0; batchCounter < batchSize; batchCounter++) {
+                        animals.add(newAnimal(random.nextInt(Animal.NR_SPECIES), "T" + threadId + "A" + (animalCounter++)));
+                    }
+                    byte[] results = batchSize == 1 ? new byte[] { zoo.addAnimal(areaId, animals.get(0)) } : zoo.addAnimals(areaId, animals);
+                    for (int resultCounter = 0; resultCounter < results.length; resultCounter++) {
+                        if (results[resultCounter] == Codes.ANIMAL_ADDED)
+                        {
+                            nrAdded.incrementAndGet(areaId);
+                        }
+                        else if (results[resultCounter] == Codes.HABITAT_FULL)
+                        {
+                            refusedAsFull.incrementAndGet(areaId);
+                        }
+                        else if (results[resultCounter] == Codes.INCOMPATIBLE_INHABITANTS)
+                        {
+                            incompatibleAnimals.add(animals.get(resultCounter));
+                        }
+                        nrResults.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        check(nrResults.get() == (long) NR_THREADS * NR_ANIMALS_PER_THREAD, "every animal got a result");
+        int nrInhabitants = 0;
+        for (int areaId = 1; areaId <= NR_HABITATS; areaId++) {
+            Habitats habitat = (Habitats) zoo.getArea(areaId);
+            check(habitat.getNrInhabitants() <= CAPACITY, "habitat " + areaId + " is not over its capacity");
+            check(habitat.getNrInhabitants() == nrAdded.get(areaId), "habitat " + areaId + " holds every animal reported as added");
+            // habitats never lose inhabitants, so a habitat that refused an animal as full must still be full
+            check(refusedAsFull.get(areaId) == 0 || habitat.isFull(), "habitat " + areaId + " was full when it refused an animal");
+            for (Animal inhabitant : habitat.getInhabitants()) {
+                for (Animal otherInhabitant : habitat.getInhabitants()) {
+                    check(inhabitant.isCompatibleWith(otherInhabitant), "the inhabitants of habitat " + areaId + " are compatible");
+                }
+                check(zoo.findAnimals(inhabitant.getNickname()).size() == 1, "every inhabitant is in the nickname index once");
+            }
+            nrInhabitants += habitat.getNrInhabitants();
+        }
+        for (List<Animal> incompatibleAnimals : refusedAsIncompatible) {
+            for (Animal animal : incompatibleAnimals) {
+                // the species a habitat accepts only ever narrow, so an incompatible animal stays incompatible
+                check(zoo.findAnimals(animal.getNickname()).isEmpty(), "a refused animal is not in the nickname index");
+            }
+        }
+        check(zoo.findAnimalsByPrefix("T", Integer.MAX_VALUE).size() == nrInhabitants, "the nickname index holds only the inhabitants");
+        zoo.closeJournal();
+        checkSameInhabitants(zoo, Zoo.openJournal(path));
+        Files.delete(path);
+        incompatibleAnimalsAreNeverRefusedAsFull();
+        System.out.println("ConcurrentIntakeTest OK");
+    }
+
+    // a habitat with room left must refuse incompatible animals as incompatible, however many arrive at once
+    private static void incompatibleAnimalsAreNeverRefusedAsFull() throws InterruptedException {
+        Zoo zoo = new Zoo();
+        int areaId = zoo.addArea(new Enclosure(2));
+        zoo.addAnimal(areaId, new Lion("Leo"));
+        AtomicIntegerArray nrResults = new AtomicIntegerArray(5);
+        Thread[] threads = new Thread[NR_THREADS];
+        for (int threadCounter = 0; threadCounter < NR_THREADS; threadCounter++) {
+            threads[threadCounter] = new Thread(() -> {
+                for (int animalCounter = 0; animalCounter < NR_ANIMALS_PER_THREAD; animalCounter++) {
+                    nrResults.incrementAndGet(zoo.addAnimal(areaId, new Zebra("Zebra")));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        check(nrResults.get(Codes.INCOMPATIBLE_INHABITANTS) == NR_THREADS * NR_ANIMALS_PER_THREAD, "every zebra was refused as incompatible, "
+                + nrResults.get(Codes.HABITAT_FULL) + " were refused as full");
+    }
+
+    // the journal holds the animals of every habitat in the order they were added
+    private static void checkSameInhabitants(Zoo zoo, Zoo replayedZoo) throws IOException {
+        for (int areaId = 1; areaId <= NR_HABITATS; areaId++) {
+            check(Arrays.equals(((Habitats) zoo.getArea(areaId)).getNicknames(), ((Habitats) replayedZoo.getArea(areaId)).getNicknames()),
+                    "the journal rebuilds the inhabitants of habitat " + areaId);
+        }
+        replayedZoo.closeJournal();
+    }
+
+    private static Animal newAnimal(int speciesId, String nickname) {
+        switch (speciesId) {
+            case Animal.LION:
+                return new Lion(nickname);
+            case Animal.ZEBRA:
+                return new Zebra(nickname);
+            case Animal.GAZELLE:
+                return new Gazelle(nickname);
+            case Animal.SHARK:
+                return new Shark(nickname);
+            case Animal.STARFISH:
+                return new Starfish(nickname);
+            case Animal.SEAL:
+                return new Seal(nickname);
+            case Animal.PARROT:
+                return new Parrot(nickname);
+            default:
+                return new Buzzard(nickname);
+        }
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package zoo;
+
+import areas.Entrance;
+import areas.PicnicArea;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/** this class imports the same small edge list from text and from binary, checks both zoos against the list,
+ * and checks that malformed files, and areas the zoo does not accept, fail the import
+ */
+public class EdgeListImporterTest {
+
+    // the connections of the edge list, once each, sorted by the area they start from
+    private static final int[][] CONNECTIONS = { { 0, 1 }, { 0, 5 }, { 1, 2 }, { 2, 0 }, { 2, 2 }, { 5, 1 } };
+
+    public static void main(String[] args) throws IOException {
+        Path path = Files.createTempFile("connections", ".txt");
+        textIsImported(path);
+        binaryIsImported(path);
+        malformedTextIsReported(path);
+        malformedBinaryIsReported(path);
+        areasTheZooDoesNotAcceptFailTheImport(path);
+        Files.delete(path);
+        System.out.println("EdgeListImporterTest OK");
+    }
+
+    // comments, empty lines, every separator, repeated connections and a last line without a line break
+    private static void textIsImported(Path path) throws IOException {
+        Files.write(path, ("# the park\n"
+                + "0 1\n"
+                + "\n"
+                + "0\t5   # to the lake\n"
+                + "1,2\r\n"
+                + "0 1\n"
+                + "2 0\n"
+                + "2 2\n"
+                + "1 , 2\n"
+                + "5 1").getBytes(StandardCharsets.UTF_8));
+        EdgeListImporter importer = new EdgeListImporter();
+        Zoo zoo = importer.importText(path);
+        check(importer.getNrConnectionsRead() == 8, "every connection of the text was read, repeats included");
+        checkZoo(importer, zoo, "the text");
+    }
+
+    private static void binaryIsImported(Path path) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(path))) {
+            // every connection twice, the repeats in reverse order
+            for (int connectionCounter = 0; connectionCounter < 2 * CONNECTIONS.length; connectionCounter++) {
+                int[] connection = CONNECTIONS[connectionCounter < CONNECTIONS.length ? connectionCounter : 2 * CONNECTIONS.length - 1 - connectionCounter];
+                output.writeInt(connection[0]);
+                output.writeInt(connection[1]);
+            }
+        }
+        EdgeListImporter importer = new EdgeListImporter();
+        Zoo zoo = importer.importBinary(path);
+        check(importer.getNrConnectionsRead() == 2 * CONNECTIONS.length, "every connection of the binary file was read, repeats included");
+        checkZoo(importer, zoo, "the binary file");
+    }
+
+    // the areas used by a connection exist, the unused IDs 3 and 4 are left empty, and every connection was added once
+    private static void checkZoo(EdgeListImporter importer, Zoo zoo, String description) {
+        check(importer.getNrConnectionsImported() == CONNECTIONS.length && importer.getNrAreasImported() == 3,
+                "every connection and area of " + description + " was imported once");
+        check(zoo.getHighestAreaId() == 5, "the highest area ID of " + description + " is kept");
+        for (int areaId = 1; areaId <= 5; areaId++) {
+            check((zoo.getArea(areaId) != null) == (areaId != 3 && areaId != 4), "only the areas used by " + description + " exist");
+        }
+        for (int areaId = 0; areaId <= 5; areaId++) {
+            int fromAreaId = areaId;
+            int[] expectedConnections = Arrays.stream(CONNECTIONS).filter(connection -> connection[0] == fromAreaId).mapToInt(connection -> connection[1]).toArray();
+            int[] actualConnections = Arrays.copyOf(zoo.getAreaConnections().getConnections(areaId), zoo.getAreaConnections().getNrConnections(areaId));
+            Arrays.sort(actualConnections);
+            check(Arrays.equals(expectedConnections, actualConnections), "the connections of area " + areaId + " match " + description);
+        }
+        check(zoo.findUnreachableAreas().isEmpty(), "every area of " + description + " can be reached");
+    }
+
+    private static void malformedTextIsReported(Path path) throws IOException {
+        String[] malformedTexts = { "0 1\n1\n", "0 1\n1 2 3\n", "0 1\n1 x\n", "0 -1\n", "0 99999999999\n", "0 1\n2" };
+        for (String malformedText : malformedTexts) {
+            Files.write(path, malformedText.getBytes(StandardCharsets.UTF_8));
+            check(isReported(() -> new EdgeListImporter().importText(path)), "the malformed text \"" + malformedText + "\" is reported");
+        }
+    }
+
+    private static void malformedBinaryIsReported(Path path) throws IOException {
+        // a connection cut short, and a negative area ID
+        Files.write(path, new byte[] { 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 2 });
+        check(isReported(() -> new EdgeListImporter().importBinary(path)), "a binary file ending in the middle of a connection is reported");
+        Files.write(path, new byte[] { 0, 0, 0, 0, -1, -1, -1, -1 });
+        check(isReported(() -> new EdgeListImporter().importBinary(path)), "a negative area ID is reported");
+    }
+
+    // an area added twice, or a second entrance, would not get the area ID of the file
+    private static void areasTheZooDoesNotAcceptFailTheImport(Path path) throws IOException {
+        Files.write(path, "0 1\n1 2\n".getBytes(StandardCharsets.UTF_8));
+        PicnicArea sharedArea = new PicnicArea();
+        check(isRejected(() -> new EdgeListImporter(areaId -> sharedArea).importText(path)), "an area made twice fails the import");
+        check(isRejected(() -> new EdgeListImporter(areaId -> new Entrance()).importText(path)), "a second entrance fails the import");
+    }
+
+    private interface Import {
+        Zoo run() throws IOException;
+    }
+
+    private static boolean isReported(Import anImport) {
+        try {
+            anImport.run();
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static boolean isRejected(Import anImport) throws IOException {
+        try {
+            anImport.run();
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
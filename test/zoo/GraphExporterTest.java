@@ -0,0 +1,133 @@
+package zoo;
+
+import animals.Lion;
+import areas.Cage;
+import areas.Enclosure;
+import areas.PicnicArea;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Element;
+
+/** this class exports a small zoo in every format and compares the files with the output expected,
+ * and checks that the labels are escaped for every format
+ */
+public class GraphExporterTest {
+
+    public static void main(String[] args) throws Exception {
+        Zoo zoo = newZoo();
+        Path path = Files.createTempFile("zoo", ".graph");
+        Path connectionsPath = Files.createTempFile("connections", ".csv");
+        dotIsExported(zoo, path);
+        graphMlIsExported(zoo, path);
+        csvIsExported(zoo, path, connectionsPath);
+        labelsAreEscaped();
+        Files.delete(path);
+        Files.delete(connectionsPath);
+        System.out.println("GraphExporterTest OK");
+    }
+
+    // the entrance, a habitat with one lion, a picnic area, and a cage that leads into the zoo but cannot be reached
+    private static Zoo newZoo() {
+        Zoo zoo = new Zoo();
+        zoo.addArea(new Enclosure(5));
+        zoo.addArea(new PicnicArea());
+        zoo.addArea(new Cage(3));
+        zoo.addAnimal(1, new Lion("Leo"));
+        zoo.connectAreas(0, 1);
+        zoo.connectAreas(1, 2);
+        zoo.connectAreas(2, 0);
+        zoo.connectAreas(3, 1);
+        return zoo;
+    }
+
+    private static void dotIsExported(Zoo zoo, Path path) throws IOException {
+        new GraphExporter(zoo).exportDot(path);
+        checkFile(path, "digraph zoo {\n"
+                + "  0 [label=\"0 Entrance\"];\n"
+                + "  1 [label=\"1 Enclosure 1/5\"];\n"
+                + "  2 [label=\"2 PicnicArea\"];\n"
+                + "  3 [label=\"3 Cage 0/3\"];\n"
+                + "  0 -> 1;\n"
+                + "  1 -> 2;\n"
+                + "  2 -> 0;\n"
+                + "  3 -> 1;\n"
+                + "}\n", "the DOT export");
+        // only the cage cannot be reached, and its connection leads to an area that is not exported
+        new GraphExporter(zoo, GraphExporter.UNREACHABLE_AREAS).exportDot(path);
+        checkFile(path, "digraph zoo {\n"
+                + "  3 [label=\"3 Cage 0/3\"];\n"
+                + "}\n", "the DOT export of the unreachable areas");
+    }
+
+    private static void graphMlIsExported(Zoo zoo, Path path) throws Exception {
+        new GraphExporter(zoo).exportGraphMl(path);
+        checkFile(path, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+                + "  <key id=\"type\" for=\"node\" attr.name=\"type\" attr.type=\"string\"/>\n"
+                + "  <key id=\"capacity\" for=\"node\" attr.name=\"capacity\" attr.type=\"int\"/>\n"
+                + "  <key id=\"occupancy\" for=\"node\" attr.name=\"occupancy\" attr.type=\"int\"/>\n"
+                + "  <graph id=\"zoo\" edgedefault=\"directed\">\n"
+                + "    <node id=\"a0\"><data key=\"type\">Entrance</data></node>\n"
+                + "    <node id=\"a1\"><data key=\"type\">Enclosure</data><data key=\"capacity\">5</data><data key=\"occupancy\">1</data></node>\n"
+                + "    <node id=\"a2\"><data key=\"type\">PicnicArea</data></node>\n"
+                + "    <node id=\"a3\"><data key=\"type\">Cage</data><data key=\"capacity\">3</data><data key=\"occupancy\">0</data></node>\n"
+                + "    <edge source=\"a0\" target=\"a1\"/>\n"
+                + "    <edge source=\"a1\" target=\"a2\"/>\n"
+                + "    <edge source=\"a2\" target=\"a0\"/>\n"
+                + "    <edge source=\"a3\" target=\"a1\"/>\n"
+                + "  </graph>\n"
+                + "</graphml>\n", "the GraphML export");
+        // the export is a well-formed XML document
+        check(DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(path.toFile()).getElementsByTagName("node").getLength() == 4,
+                "the GraphML export is parsed back with every area");
+    }
+
+    private static void csvIsExported(Zoo zoo, Path areasPath, Path connectionsPath) throws IOException {
+        new GraphExporter(zoo).exportCsv(areasPath, connectionsPath);
+        checkFile(areasPath, "id,type,capacity,occupancy\n"
+                + "0,Entrance,,\n"
+                + "1,Enclosure,5,1\n"
+                + "2,PicnicArea,,\n"
+                + "3,Cage,3,0\n", "the CSV export of the areas");
+        checkFile(connectionsPath, "from,to\n"
+                + "0,1\n"
+                + "1,2\n"
+                + "2,0\n"
+                + "3,1\n", "the CSV export of the connections");
+    }
+
+    private static void labelsAreEscaped() throws Exception {
+        String label = "Pond \"A\" <North> & Co's\\East\nWing, 2";
+        check(GraphExporter.escapeDot(label).equals("Pond \\\"A\\\" <North> & Co's\\\\East\\nWing, 2"), "a DOT label is escaped");
+        check(GraphExporter.escapeXml(label).equals("Pond &quot;A&quot; &lt;North&gt; &amp; Co&apos;s\\East\nWing, 2"), "an XML label is escaped");
+        check(GraphExporter.escapeCsv(label).equals("\"Pond \"\"A\"\" <North> & Co's\\East\nWing, 2\""), "a CSV field is quoted");
+        check(GraphExporter.escapeCsv("Cage").equals("Cage"), "a CSV field with nothing to escape is left as it is");
+        // an escaped label reads back as the label, both as element content and as an attribute value
+        String document = "<label name=\"" + GraphExporter.escapeXml(label) + "\">" + GraphExporter.escapeXml(label) + "</label>";
+        Element element = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8))).getDocumentElement();
+        check(element.getTextContent().equals(label), "an escaped XML label reads back as the label");
+        // line breaks in attribute values are read back as spaces, as XML requires
+        check(element.getAttribute("name").equals(label.replace('\n', ' ')), "an escaped XML attribute reads back as the label");
+    }
+
+    private static void checkFile(Path path, String expected, String description) throws IOException {
+        String actual = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        check(actual.equals(expected), description + " matches the output expected, but was:\n" + actual);
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package zoo;
+
+import animals.Animal;
+import animals.Lion;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/** this class adds and removes animals with nicknames that share their starts, some of them in two habitats at once,
+ * and checks every search against a simple list of the animals in the order they were added
+ */
+public class NicknameIndexTest {
+
+    private static final int NR_OPERATIONS = 100_000;
+    private static final int MAX_SIZE = 400;
+    private static final String[] NICKNAMES = { "", "L", "Le", "Leo", "Leon", "Leona", "Lea", "Max", "Maxi", "Mia", "é", "éa" };
+
+    public static void main(String[] args) {
+        Random random = new Random(25);
+        NicknameIndex index = new NicknameIndex();
+        // the model: every animal in the index, with its habitat, in the order they were added
+        ArrayList<AnimalLocation> model = new ArrayList<>();
+        Animal[] animals = new Animal[40];
+        for (int animalCounter = 0; animalCounter < animals.length; animalCounter++) {
+            animals[animalCounter] = new Lion(NICKNAMES[animalCounter % NICKNAMES.length]);
+        }
+        int nrRemovedFromOneHabitat = 0;
+        for (int operationCounter = 1; operationCounter <= NR_OPERATIONS; operationCounter++) {
+            // the index is emptied now and then, so every node is taken out and reused
+            boolean emptying = operationCounter % 20_000 < 200 && !model.isEmpty();
+            // animals are added more often while there are few, so the index holds around MAX_SIZE / 2 of them
+            if (!emptying && random.nextInt(MAX_SIZE) >= model.size())
+            {
+                // the same animal may be added to several habitats
+                AnimalLocation location = new AnimalLocation(1 + random.nextInt(3), animals[random.nextInt(animals.length)]);
+                index.add(location.getAreaId(), location.getAnimal());
+                model.add(location);
+            }
+            else
+            {
+                // an animal added twice to the same habitat is removed where it was added first, as the index does
+                AnimalLocation randomLocation = model.get(random.nextInt(model.size()));
+                AnimalLocation location = model.remove(firstPosition(model, randomLocation));
+                nrRemovedFromOneHabitat += isInModel(model, location.getAnimal()) ? 1 : 0;
+                index.remove(location.getAreaId(), location.getAnimal());
+            }
+            if (operationCounter % 100 == 0)
+            {
+                checkMatchesModel(index, model, random);
+            }
+        }
+        check(nrRemovedFromOneHabitat > 100, "animals living in two habitats were removed from one");
+        System.out.println("NicknameIndexTest OK");
+    }
+
+    private static void checkMatchesModel(NicknameIndex index, ArrayList<AnimalLocation> model, Random random) {
+        for (String nickname : NICKNAMES) {
+            List<AnimalLocation> expected = model.stream().filter(location -> location.getAnimal().getNickname().equals(nickname))
+                    .collect(Collectors.toList());
+            check(isSame(index.find(nickname), expected), "find agrees with the model for \"" + nickname + "\"");
+        }
+        check(index.find("Leonardo").isEmpty(), "a nickname nobody has is not found");
+        String prefix = NICKNAMES[random.nextInt(NICKNAMES.length)];
+        int maxResults = random.nextInt(2) == 0 ? Integer.MAX_VALUE : 1 + random.nextInt(10);
+        // sorted by nickname, and by the order they were added within a nickname, since the sort is stable
+        List<AnimalLocation> expected = model.stream().filter(location -> location.getAnimal().getNickname().startsWith(prefix))
+                .sorted(Comparator.comparing(location -> location.getAnimal().getNickname()))
+                .limit(maxResults).collect(Collectors.toList());
+        check(isSame(index.findByPrefix(prefix, maxResults), expected), "findByPrefix agrees with the model for \"" + prefix + "\"");
+    }
+
+    private static int firstPosition(ArrayList<AnimalLocation> model, AnimalLocation location) {
+        int position = 0;
+        while (model.get(position).getAnimal() != location.getAnimal() || model.get(position).getAreaId() != location.getAreaId()) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isInModel(ArrayList<AnimalLocation> model, Animal animal) {
+        return model.stream().anyMatch(location -> location.getAnimal() == animal);
+    }
+
+    private static boolean isSame(List<AnimalLocation> actual, List<AnimalLocation> expected) {
+        if (actual.size() != expected.size())
+        {
+            return false;
+        }
+        for (int locationCounter = 0; locationCounter < actual.size(); locationCounter++) {
+            if (actual.get(locationCounter).getAnimal() != expected.get(locationCounter).getAnimal()
+                    || actual.get(locationCounter).getAreaId() != expected.get(locationCounter).getAreaId())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package zoo;
+
+import areas.PicnicArea;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/** this class checks that the parallel search finds the same unreachable areas as the sequential one,
+ * on random zoos sparse enough to be searched top-down only, and dense enough to switch to bottom-up and back
+ */
+public class ParallelReachabilityTest {
+
+    // enough areas for the bottom-up steps to be split over several tasks
+    private static final int NR_AREAS = 20_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(11);
+        // about one connection per area: the levels stay small, so every step is top-down
+        for (int zooCounter = 0; zooCounter < 3; zooCounter++) {
+            checkMatches(newZoo(random, 1, 0), "a sparse zoo");
+        }
+        // sixteen connections per area: the levels grow past a fourteenth of the unexplored connections within a few steps,
+        // so the search turns bottom-up, and turns top-down again once the last levels shrink
+        for (int zooCounter = 0; zooCounter < 3; zooCounter++) {
+            checkMatches(newZoo(random, 16, 0), "a dense zoo");
+        }
+        // removed areas leave gaps in the IDs that neither search may report
+        for (int zooCounter = 0; zooCounter < 3; zooCounter++) {
+            checkMatches(newZoo(random, 16, NR_AREAS / 10), "a dense zoo with removed areas");
+        }
+        System.out.println("ParallelReachabilityTest OK");
+    }
+
+    private static void checkMatches(Zoo zoo, String description) {
+        ArrayList<Integer> unreachableAreaIds = zoo.findUnreachableAreas();
+        ArrayList<Integer> parallelUnreachableAreaIds = zoo.findUnreachableAreasInParallel();
+        unreachableAreaIds.sort(null);
+        parallelUnreachableAreaIds.sort(null);
+        check(unreachableAreaIds.equals(parallelUnreachableAreaIds), "both searches find the same unreachable areas in " + description);
+        check(!unreachableAreaIds.isEmpty() && unreachableAreaIds.size() < NR_AREAS - 1, "both reachable and unreachable areas were searched in " + description);
+    }
+
+    // the last tenth of the areas is an island: connected among themselves and into the rest of the zoo, but never reached from it,
+    // so the bottom-up steps also look at areas whose every incoming connection comes from an unreachable area
+    private static Zoo newZoo(Random random, int nrConnectionsPerArea, int nrRemovedAreas) {
+        Zoo zoo = new Zoo();
+        for (int areaCounter = 0; areaCounter < NR_AREAS; areaCounter++) {
+            zoo.addArea(new PicnicArea());
+        }
+        int nrMainAreas = NR_AREAS - NR_AREAS / 10;
+        for (int connectionCounter = 0; connectionCounter < 4; connectionCounter++) {
+            zoo.connectAreas(0, 1 + random.nextInt(nrMainAreas));
+        }
+        for (int connectionCounter = 0; connectionCounter < NR_AREAS * nrConnectionsPerArea; connectionCounter++) {
+            int fromAreaId = 1 + random.nextInt(NR_AREAS);
+            // connections out of the island may lead anywhere, the others stay on the main part
+            int toAreaId = 1 + random.nextInt(fromAreaId > nrMainAreas ? NR_AREAS : nrMainAreas);
+            zoo.connectAreas(fromAreaId, toAreaId);
+        }
+        for (int removedCounter = 0; removedCounter < nrRemovedAreas; removedCounter++) {
+            zoo.removeArea(1 + random.nextInt(NR_AREAS));
+        }
+        return zoo;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package zoo;
+
+import animals.Animal;
+import animals.Buzzard;
+import animals.Gazelle;
+import animals.Lion;
+import animals.Parrot;
+import animals.Seal;
+import animals.Shark;
+import animals.Starfish;
+import animals.Zebra;
+import areas.Aquarium;
+import areas.Cage;
+import areas.Enclosure;
+import areas.Habitats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** this class places batches of animals, with no time budget and while other threads add animals to the same habitats,
+ * and checks that every animal is where placeAnimals says it is, and that no habitat holds more or other animals than it may
+ */
+public class PlacementEngineTest {
+
+    private static final int NR_HABITATS = 60;
+    private static final int CAPACITY = 10;
+    private static final int NR_INTAKE_THREADS = 4;
+    private static final int NR_BATCHES = 200;
+    private static final int BATCH_SIZE = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        noTimeBudgetStillPlacesAnimals();
+        placementsHoldDuringConcurrentIntake();
+        System.out.println("PlacementEngineTest OK");
+    }
+
+    // the search threads that start after the deadline find no plan, which must not hide the plan of the first one
+    private static void noTimeBudgetStillPlacesAnimals() {
+        Zoo zoo = newZoo();
+        Random random = new Random(1);
+        List<Animal> animals = newAnimals(random, "B", BATCH_SIZE);
+        int[] placedAreaIds = zoo.placeAnimals(animals, 0);
+        checkPlacements(zoo, animals, placedAreaIds);
+        int nrPlaced = 0;
+        for (int placedAreaId : placedAreaIds) {
+            nrPlaced += placedAreaId == -1 ? 0 : 1;
+        }
+        check(nrPlaced == BATCH_SIZE, "an empty zoo has room for every animal, " + nrPlaced + " were placed");
+    }
+
+    private static void placementsHoldDuringConcurrentIntake() throws InterruptedException {
+        Zoo zoo = newZoo();
+        AtomicBoolean placing = new AtomicBoolean(true);
+        Thread[] threads = new Thread[NR_INTAKE_THREADS];
+        for (int threadCounter = 0; threadCounter < NR_INTAKE_THREADS; threadCounter++) {
+            Random random = new Random(100 + threadCounter);
+            String prefix = "T" + threadCounter + "A";
+            threads[threadCounter] = new Thread(() -> {
+                for (int animalCounter = 0; placing.get(); animalCounter++) {
+                    zoo.addAnimal(1 + random.nextInt(NR_HABITATS), newAnimal(random.nextInt(Animal.NR_SPECIES), prefix + animalCounter));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Random random = new Random(2);
+        for (int batchCounter = 0; batchCounter < NR_BATCHES; batchCounter++) {
+            List<Animal> animals = newAnimals(random, "P" + batchCounter + "A", BATCH_SIZE);
+            checkPlacements(zoo, animals, zoo.placeAnimals(animals, 1));
+        }
+        placing.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int areaId = 1; areaId <= NR_HABITATS; areaId++) {
+            Habitats habitat = (Habitats) zoo.getArea(areaId);
+            check(habitat.getNrInhabitants() <= CAPACITY, "habitat " + areaId + " is not over its capacity");
+            for (Animal inhabitant : habitat.getInhabitants()) {
+                for (Animal otherInhabitant : habitat.getInhabitants()) {
+                    check(inhabitant.isCompatibleWith(otherInhabitant), "the inhabitants of habitat " + areaId + " are compatible");
+                }
+            }
+        }
+    }
+
+    // every animal placed is found in the habitat reported, and every animal not placed is found nowhere
+    private static void checkPlacements(Zoo zoo, List<Animal> animals, int[] placedAreaIds) {
+        check(placedAreaIds.length == animals.size(), "every animal got a result");
+        for (int animalCounter = 0; animalCounter < animals.size(); animalCounter++) {
+            ArrayList<AnimalLocation> locations = zoo.findAnimals(animals.get(animalCounter).getNickname());
+            if (placedAreaIds[animalCounter] == -1)
+            {
+                check(locations.isEmpty(), "an animal that was not placed is not in the zoo");
+            }
+            else
+            {
+                check(locations.size() == 1 && locations.get(0).getAreaId() == placedAreaIds[animalCounter],
+                        "a placed animal is in the habitat reported");
+            }
+        }
+    }
+
+    private static Zoo newZoo() {
+        Zoo zoo = new Zoo();
+        for (int habitatCounter = 0; habitatCounter < NR_HABITATS; habitatCounter++) {
+            switch (habitatCounter % 3) {
+                case 0:
+                    zoo.addArea(new Enclosure(CAPACITY));
+                    break;
+                case 1:
+                    zoo.addArea(new Cage(CAPACITY));
+                    break;
+                default:
+                    zoo.addArea(new Aquarium(CAPACITY));
+            }
+        }
+        return zoo;
+    }
+
+    private static List<Animal> newAnimals(Random random, String prefix, int nrAnimals) {
+        List<Animal> animals = new ArrayList<>();
+        for (int animalCounter = 0; animalCounter < nrAnimals; animalCounter++) {
+            animals.add(newAnimal(random.nextInt(Animal.NR_SPECIES), prefix + animalCounter));
+        }
+        return animals;
+    }
+
+    private static Animal newAnimal(int speciesId, String nickname) {
+        switch (speciesId) {
+            case Animal.LION:
+                return new Lion(nickname);
+            case Animal.ZEBRA:
+                return new Zebra(nickname);
+            case Animal.GAZELLE:
+                return new Gazelle(nickname);
+            case Animal.SHARK:
+                return new Shark(nickname);
+            case Animal.STARFISH:
+                return new Starfish(nickname);
+            case Animal.SEAL:
+                return new Seal(nickname);
+            case Animal.PARROT:
+                return new Parrot(nickname);
+            default:
+                return new Buzzard(nickname);
+        }
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
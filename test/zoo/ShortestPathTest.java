@@ -0,0 +1,126 @@
+package zoo;
+
+import areas.PicnicArea;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/** this class asks for routes from a few popular areas between random changes to the zoo, so the cached route trees are used
+ * and must be thrown away after every change, and checks every route against a plain breadth-first search of a simple model
+ */
+public class ShortestPathTest {
+
+    private static final int NR_ROUNDS = 300;
+    private static final int NR_QUERIES = 300;
+    private static final int[] POPULAR_AREA_IDS = { 0, 1, 2, 3 };
+
+    public static void main(String[] args) {
+        Random random = new Random(12);
+        Zoo zoo = new Zoo();
+        // the model: the areas each area leads to, for every area that exists
+        HashMap<Integer, HashSet<Integer>> outgoing = new HashMap<>();
+        outgoing.put(0, new HashSet<>());
+        int highestAreaId = 0;
+        for (int areaCounter = 0; areaCounter < 300; areaCounter++) {
+            highestAreaId = zoo.addArea(new PicnicArea());
+            outgoing.put(highestAreaId, new HashSet<>());
+        }
+        int nrRoutes = 0;
+        int nrShortened = 0;
+        int nrLengthened = 0;
+        for (int roundCounter = 0; roundCounter < NR_ROUNDS; roundCounter++) {
+            HashMap<Integer, HashMap<Integer, Integer>> stepsBefore = new HashMap<>();
+            for (int fromAreaId : POPULAR_AREA_IDS) {
+                stepsBefore.put(fromAreaId, search(outgoing, fromAreaId));
+            }
+            // connections are added every round, which shortens routes, and areas are removed now and then,
+            // which takes away connections and lengthens routes or cuts them off
+            for (int connectionCounter = 0; connectionCounter < 4; connectionCounter++) {
+                int fromAreaId = random.nextInt(highestAreaId + 1);
+                int toAreaId = random.nextInt(highestAreaId + 1);
+                if (outgoing.containsKey(fromAreaId) && outgoing.containsKey(toAreaId))
+                {
+                    zoo.connectAreas(fromAreaId, toAreaId);
+                    outgoing.get(fromAreaId).add(toAreaId);
+                }
+            }
+            if (roundCounter % 3 == 0)
+            {
+                // the popular areas are never removed, so their routes are asked for in every round
+                int areaId = POPULAR_AREA_IDS.length + random.nextInt(highestAreaId + 1 - POPULAR_AREA_IDS.length);
+                zoo.removeArea(areaId);
+                if (outgoing.remove(areaId) != null)
+                {
+                    for (HashSet<Integer> toAreaIds : outgoing.values()) {
+                        toAreaIds.remove(areaId);
+                    }
+                }
+            }
+            if (roundCounter % 10 == 0)
+            {
+                highestAreaId = zoo.addArea(new PicnicArea());
+                outgoing.put(highestAreaId, new HashSet<>());
+            }
+            for (int fromAreaId : POPULAR_AREA_IDS) {
+                HashMap<Integer, Integer> steps = search(outgoing, fromAreaId);
+                for (int queryCounter = 0; queryCounter < NR_QUERIES; queryCounter++) {
+                    int toAreaId = random.nextInt(highestAreaId + 1);
+                    checkRoute(zoo, outgoing, fromAreaId, toAreaId, steps.get(toAreaId));
+                    // a route that changed length since the last round can only be right if the cached tree was thrown away
+                    Integer oldSteps = stepsBefore.get(fromAreaId).get(toAreaId);
+                    Integer newSteps = steps.get(toAreaId);
+                    nrRoutes += newSteps != null ? 1 : 0;
+                    nrShortened += newSteps != null && (oldSteps == null || newSteps < oldSteps) ? 1 : 0;
+                    nrLengthened += oldSteps != null && (newSteps == null || newSteps > oldSteps) ? 1 : 0;
+                }
+            }
+        }
+        check(nrRoutes > 1000 && nrShortened > 100 && nrLengthened > 100, "routes were found, and both shortened and lengthened by the changes");
+        System.out.println("ShortestPathTest OK");
+    }
+
+    private static void checkRoute(Zoo zoo, HashMap<Integer, HashSet<Integer>> outgoing, int fromAreaId, int toAreaId, Integer expectedSteps) {
+        ArrayList<Integer> route = zoo.shortestPath(fromAreaId, toAreaId);
+        String description = "the route from " + fromAreaId + " to " + toAreaId;
+        if (expectedSteps == null)
+        {
+            check(route == null, description + " is not found, since there is none");
+            return;
+        }
+        check(route != null && route.size() == expectedSteps + 1, description + " takes as few steps as the model's");
+        check(route.get(0) == fromAreaId && route.get(route.size() - 1) == toAreaId, description + " starts and ends at the given areas");
+        for (int stepCounter = 1; stepCounter < route.size(); stepCounter++) {
+            check(outgoing.get(route.get(stepCounter - 1)).contains(route.get(stepCounter)), description + " only follows existing connections");
+        }
+    }
+
+    // a plain breadth-first search, giving the number of steps to every area that can be reached
+    private static HashMap<Integer, Integer> search(HashMap<Integer, HashSet<Integer>> outgoing, int fromAreaId) {
+        HashMap<Integer, Integer> steps = new HashMap<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        steps.put(fromAreaId, 0);
+        queue.add(fromAreaId);
+        while (!queue.isEmpty()) {
+            int areaId = queue.poll();
+            for (int toAreaId : outgoing.get(areaId)) {
+                if (!steps.containsKey(toAreaId))
+                {
+                    steps.put(toAreaId, steps.get(areaId) + 1);
+                    queue.add(toAreaId);
+                }
+            }
+        }
+        return steps;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package zoo;
+
+import animals.Lion;
+import areas.Enclosure;
+import areas.PicnicArea;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** this class checks that the tour planner does not drop a tour that has seen fewer animals so far but can see more later,
+ * and that areas visited twice are only counted once
+ */
+public class TourPlannerTest {
+
+    public static void main(String[] args) {
+        fewerAnimalsSoFarCanStillWin();
+        revisitedAreasAreCountedOnce();
+        System.out.println("TourPlannerTest OK");
+    }
+
+    // 0 -> pride -> picnic -> pride sees 10 lions, 0 -> loner -> picnic -> pride sees 11,
+    // though both reach the picnic area in two steps and the first has seen more lions by then
+    private static void fewerAnimalsSoFarCanStillWin() {
+        Zoo zoo = new Zoo();
+        int prideAreaId = zoo.addArea(new Enclosure(10));
+        int lonerAreaId = zoo.addArea(new Enclosure(10));
+        int picnicAreaId = zoo.addArea(new PicnicArea());
+        addLions(zoo, prideAreaId, 10);
+        addLions(zoo, lonerAreaId, 1);
+        zoo.connectAreas(0, prideAreaId);
+        zoo.connectAreas(0, lonerAreaId);
+        zoo.connectAreas(prideAreaId, picnicAreaId);
+        zoo.connectAreas(lonerAreaId, picnicAreaId);
+        zoo.connectAreas(picnicAreaId, prideAreaId);
+        ArrayList<Integer> tour = zoo.recommendTour(3, 16, 10_000);
+        check(tour.equals(List.of(0, lonerAreaId, picnicAreaId, prideAreaId)), "the tour sees every lion, but was " + tour);
+    }
+
+    // going back and forth between two habitats sees no more animals than visiting each once
+    private static void revisitedAreasAreCountedOnce() {
+        Zoo zoo = new Zoo();
+        int firstAreaId = zoo.addArea(new Enclosure(10));
+        int secondAreaId = zoo.addArea(new Enclosure(10));
+        int lastAreaId = zoo.addArea(new Enclosure(10));
+        addLions(zoo, firstAreaId, 5);
+        addLions(zoo, secondAreaId, 5);
+        addLions(zoo, lastAreaId, 1);
+        zoo.connectAreas(0, firstAreaId);
+        zoo.connectAreas(firstAreaId, secondAreaId);
+        zoo.connectAreas(secondAreaId, firstAreaId);
+        zoo.connectAreas(secondAreaId, lastAreaId);
+        ArrayList<Integer> tour = zoo.recommendTour(5, 16, 10_000);
+        check(tour.equals(List.of(0, firstAreaId, secondAreaId, lastAreaId)), "the tour goes on to the last lion, but was " + tour);
+    }
+
+    private static void addLions(Zoo zoo, int areaId, int nrLions) {
+        for (int lionCounter = 0; lionCounter < nrLions; lionCounter++) {
+            zoo.addAnimal(areaId, new Lion("Lion" + areaId + "." + lionCounter));
+        }
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package zoo;
+
+import areas.PicnicArea;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/** this class adds and removes areas and connections at random, and checks findTrappedAreas as it goes
+ * against a plain breadth-first search back from the entrance over a simple model of the connections
+ */
+public class TrappedAreasTest {
+
+    private static final int NR_OPERATIONS = 200_000;
+    // the number of areas the zoo is kept around
+    private static final int NR_LIVE_AREAS = 500;
+
+    public static void main(String[] args) {
+        Random random = new Random(13);
+        Zoo zoo = new Zoo();
+        // the model: the areas each area can be reached from, for every area that exists
+        HashMap<Integer, HashSet<Integer>> incoming = new HashMap<>();
+        ArrayList<Integer> liveAreaIds = new ArrayList<>();
+        incoming.put(0, new HashSet<>());
+        liveAreaIds.add(0);
+        int nrTrappedChecked = 0;
+        int nrRemovedWayBack = 0;
+        for (int operationCounter = 1; operationCounter <= NR_OPERATIONS; operationCounter++) {
+            int operation = random.nextInt(20);
+            if (operation == 0 || liveAreaIds.size() < NR_LIVE_AREAS / 2)
+            {
+                int areaId = zoo.addArea(new PicnicArea());
+                incoming.put(areaId, new HashSet<>());
+                liveAreaIds.add(areaId);
+            }
+            else if (operation == 1 && liveAreaIds.size() > NR_LIVE_AREAS)
+            {
+                // the entrance is never removed
+                int position = 1 + random.nextInt(liveAreaIds.size() - 1);
+                int areaId = liveAreaIds.get(position);
+                liveAreaIds.set(position, liveAreaIds.get(liveAreaIds.size() - 1));
+                liveAreaIds.remove(liveAreaIds.size() - 1);
+                // removing an area that leads straight to the entrance may cut the way back of every area behind it
+                nrRemovedWayBack += incoming.get(0).contains(areaId) ? 1 : 0;
+                zoo.removeArea(areaId);
+                incoming.remove(areaId);
+                for (HashSet<Integer> fromAreaIds : incoming.values()) {
+                    fromAreaIds.remove(areaId);
+                }
+            }
+            else
+            {
+                // few connections lead to the entrance, so many areas are trapped and their ways back are easily cut
+                int fromAreaId = liveAreaIds.get(random.nextInt(liveAreaIds.size()));
+                int toAreaId = operation == 2 ? 0 : liveAreaIds.get(random.nextInt(liveAreaIds.size()));
+                zoo.connectAreas(fromAreaId, toAreaId);
+                incoming.get(toAreaId).add(fromAreaId);
+            }
+            if (operationCounter % 1000 == 0)
+            {
+                nrTrappedChecked += checkMatchesModel(zoo, incoming, liveAreaIds);
+            }
+        }
+        check(nrTrappedChecked > 0 && nrRemovedWayBack > 100, "trapped areas were checked, also after ways back were removed");
+        System.out.println("TrappedAreasTest OK");
+    }
+
+    // returns the number of trapped areas found
+    private static int checkMatchesModel(Zoo zoo, HashMap<Integer, HashSet<Integer>> incoming, ArrayList<Integer> liveAreaIds) {
+        // the areas with a way back, found by searching the connections backwards from the entrance
+        HashSet<Integer> wayBackAreaIds = new HashSet<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        wayBackAreaIds.add(0);
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            for (int fromAreaId : incoming.get(queue.poll())) {
+                if (wayBackAreaIds.add(fromAreaId))
+                {
+                    queue.add(fromAreaId);
+                }
+            }
+        }
+        HashSet<Integer> expectedAreaIds = new HashSet<>(liveAreaIds);
+        expectedAreaIds.removeAll(wayBackAreaIds);
+        ArrayList<Integer> trappedAreaIds = zoo.findTrappedAreas();
+        check(trappedAreaIds.size() == expectedAreaIds.size() && expectedAreaIds.containsAll(trappedAreaIds),
+                "findTrappedAreas agrees with the model");
+        return trappedAreaIds.size();
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package zoo;
+
+import animals.Animal;
+import animals.Lion;
+import animals.Shark;
+import areas.Aquarium;
+import areas.Cage;
+import areas.Habitats;
+import areas.IArea;
+import areas.PicnicArea;
+
+import java.util.Arrays;
+
+/** this class adds animals whose classes are not part of the zoo, and checks that they are admitted
+ * as they were before species had IDs: by asking the animals and the inhabitants
+ */
+public class UnknownSpeciesTest {
+
+    // an animal from outside the zoo, living in aquariums with others of its kind
+    private static class Dolphin extends Animal {
+
+        @Override
+        public String getNickname() {
+            return "Flipper";
+        }
+
+        @Override
+        public boolean isCompatibleWith(Animal animal) {
+            return animal instanceof Dolphin;
+        }
+
+        @Override
+        public boolean isCorrectHabitat(IArea area, Animal animal) {
+            return area instanceof Aquarium;
+        }
+    }
+
+    // an animal from outside the zoo that leaves its habitat to the zoo
+    private static class Mole extends Animal {
+
+        @Override
+        public String getNickname() {
+            return "Digger";
+        }
+
+        @Override
+        public boolean isCompatibleWith(Animal animal) {
+            return true;
+        }
+    }
+
+    private static class WhiteLion extends Lion {
+
+        WhiteLion(String nickname) {
+            super(nickname);
+        }
+    }
+
+    public static void main(String[] args) {
+        speciesAreFound();
+        unknownSpeciesAreAdmitted();
+        unknownSpeciesAreNotPlaced();
+        System.out.println("UnknownSpeciesTest OK");
+    }
+
+    private static void speciesAreFound() {
+        check(new Dolphin().getSpeciesId() == Animal.UNKNOWN_SPECIES && new Dolphin().getSpeciesBit() == 0, "a dolphin has no species ID");
+        check(new WhiteLion("Snow").getSpeciesId() == Animal.LION, "a white lion is a lion");
+        check(!new Mole().isCorrectHabitat(new Cage(1), new Mole()), "an unknown species has no correct habitat of its own");
+    }
+
+    private static void unknownSpeciesAreAdmitted() {
+        Zoo zoo = new Zoo();
+        int aquariumId = zoo.addArea(new Aquarium(3));
+        int cageId = zoo.addArea(new Cage(3));
+        int picnicAreaId = zoo.addArea(new PicnicArea());
+        check(zoo.addAnimal(picnicAreaId, new Dolphin()) == Codes.NOT_A_HABITAT, "a dolphin is not put in a picnic area");
+        check(zoo.addAnimal(cageId, new Dolphin()) == Codes.WRONG_HABITAT, "a dolphin is not put in a cage");
+        check(zoo.addAnimal(cageId, new Mole()) == Codes.WRONG_HABITAT, "a mole has no habitat");
+        check(zoo.addAnimal(aquariumId, new Dolphin()) == Codes.ANIMAL_ADDED, "a dolphin is put in an aquarium");
+        check(zoo.addAnimal(aquariumId, new Dolphin()) == Codes.ANIMAL_ADDED, "a dolphin lives with a dolphin");
+        // the dolphins are asked, so a shark is refused even though the aquarium is its habitat
+        check(zoo.addAnimal(aquariumId, new Shark("Bruce")) == Codes.INCOMPATIBLE_INHABITANTS, "a shark is refused by the dolphins");
+        check(((Habitats) zoo.getArea(aquariumId)).getCompatibleSpecies() == 0, "no species is known to live with the dolphins");
+        check(zoo.addAnimal(aquariumId, new Dolphin()) == Codes.ANIMAL_ADDED, "a third dolphin is put in the aquarium");
+        check(zoo.addAnimal(aquariumId, new Dolphin()) == Codes.HABITAT_FULL, "a full aquarium takes no more dolphins");
+        check(zoo.addAnimal(cageId, new WhiteLion("Snow")) == Codes.WRONG_HABITAT, "a white lion does not live in a cage");
+    }
+
+    private static void unknownSpeciesAreNotPlaced() {
+        Zoo zoo = new Zoo();
+        zoo.addArea(new Aquarium(3));
+        int[] placedAreaIds = zoo.placeAnimals(Arrays.asList(new Dolphin(), new Shark("Bruce")));
+        check(placedAreaIds[0] == -1 && placedAreaIds[1] == 1, "only the shark is placed");
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package zoo;
+
+import areas.PicnicArea;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/** this class churns a zoo through a million random additions and removals of areas and connections,
+ * and checks isPathAllowed and findUnreachableAreas against a simple model of the connections as it goes
+ */
+public class ZooChurnTest {
+
+    private static final int NR_OPERATIONS = 1_000_000;
+    // the number of areas the zoo is kept around, so areas are removed about as often as they are added
+    private static final int NR_LIVE_AREAS = 2000;
+
+    public static void main(String[] args) {
+        Random random = new Random(10);
+        Zoo zoo = new Zoo();
+        // the model: the areas each area leads to, for every area that exists
+        HashMap<Integer, HashSet<Integer>> outgoing = new HashMap<>();
+        ArrayList<Integer> liveAreaIds = new ArrayList<>();
+        outgoing.put(0, new HashSet<>());
+        liveAreaIds.add(0);
+        int nrUnreachableChecked = 0;
+        for (int operationCounter = 1; operationCounter <= NR_OPERATIONS; operationCounter++) {
+            int operation = random.nextInt(20);
+            if (operation == 0 || liveAreaIds.size() < NR_LIVE_AREAS / 2)
+            {
+                int areaId = zoo.addArea(new PicnicArea());
+                outgoing.put(areaId, new HashSet<>());
+                liveAreaIds.add(areaId);
+            }
+            else if (operation == 1 && liveAreaIds.size() > NR_LIVE_AREAS)
+            {
+                // the entrance is never removed
+                int position = 1 + random.nextInt(liveAreaIds.size() - 1);
+                int areaId = liveAreaIds.get(position);
+                liveAreaIds.set(position, liveAreaIds.get(liveAreaIds.size() - 1));
+                liveAreaIds.remove(liveAreaIds.size() - 1);
+                zoo.removeArea(areaId);
+                for (int toAreaId : outgoing.remove(areaId)) {
+                    check(!zoo.isPathAllowed(path(areaId, toAreaId)), "no path leads out of removed area " + areaId);
+                }
+                for (HashSet<Integer> toAreaIds : outgoing.values()) {
+                    toAreaIds.remove(areaId);
+                }
+            }
+            else
+            {
+                // connections out of the entrance, so it grows long enough to be indexed, and between random areas
+                int fromAreaId = operation < 6 ? 0 : liveAreaIds.get(random.nextInt(liveAreaIds.size()));
+                int toAreaId = liveAreaIds.get(random.nextInt(liveAreaIds.size()));
+                zoo.connectAreas(fromAreaId, toAreaId);
+                outgoing.get(fromAreaId).add(toAreaId);
+            }
+            if (operationCounter % 50_000 == 0)
+            {
+                nrUnreachableChecked += checkMatchesModel(zoo, outgoing, liveAreaIds, random);
+            }
+        }
+        check(zoo.getAreaConnections().getNrConnections(0) > 512, "the entrance grew long enough to be indexed");
+        check(nrUnreachableChecked > 0, "unreachable areas were checked, not only reachable ones");
+        System.out.println("ZooChurnTest OK");
+    }
+
+    // returns the number of unreachable areas found
+    private static int checkMatchesModel(Zoo zoo, HashMap<Integer, HashSet<Integer>> outgoing, ArrayList<Integer> liveAreaIds, Random random) {
+        for (int fromAreaId : liveAreaIds) {
+            for (int toAreaId : outgoing.get(fromAreaId)) {
+                check(zoo.isPathAllowed(path(fromAreaId, toAreaId)), "the connection from " + fromAreaId + " to " + toAreaId + " is allowed");
+            }
+            check(zoo.getAreaConnections().getNrConnections(fromAreaId) == outgoing.get(fromAreaId).size(),
+                    "area " + fromAreaId + " has no connections left over from removed areas");
+        }
+        for (int pathCounter = 0; pathCounter < 10_000; pathCounter++) {
+            int fromAreaId = liveAreaIds.get(random.nextInt(liveAreaIds.size()));
+            int toAreaId = liveAreaIds.get(random.nextInt(liveAreaIds.size()));
+            check(zoo.isPathAllowed(path(fromAreaId, toAreaId)) == outgoing.get(fromAreaId).contains(toAreaId),
+                    "isPathAllowed agrees with the model from " + fromAreaId + " to " + toAreaId);
+        }
+        // the model's unreachable areas, found by a plain breadth-first search from the entrance
+        HashSet<Integer> reachedAreaIds = new HashSet<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        reachedAreaIds.add(0);
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            for (int toAreaId : outgoing.get(queue.poll())) {
+                if (reachedAreaIds.add(toAreaId))
+                {
+                    queue.add(toAreaId);
+                }
+            }
+        }
+        HashSet<Integer> expectedAreaIds = new HashSet<>(liveAreaIds);
+        expectedAreaIds.removeAll(reachedAreaIds);
+        ArrayList<Integer> unreachableAreaIds = zoo.findUnreachableAreas();
+        check(unreachableAreaIds.size() == expectedAreaIds.size() && expectedAreaIds.containsAll(unreachableAreaIds),
+                "findUnreachableAreas agrees with the model");
+        return unreachableAreaIds.size();
+    }
+
+    private static ArrayList<Integer> path(int fromAreaId, int toAreaId) {
+        ArrayList<Integer> path = new ArrayList<>();
+        path.add(fromAreaId);
+        path.add(toAreaId);
+        return path;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+package zoo;
+
+import animals.Lion;
+import areas.Enclosure;
+import dataStructures.CashCount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/** this class checks that the journal rebuilds the zoo exactly, and that a failed write is never replayed twice
+ * every payment pays a £10 entrance fee with one £10 note, so the notes in the ticket machine count the payments replayed
+ */
+public class ZooJournalTest {
+
+    public static void main(String[] args) throws IOException {
+        failedForceIsNotReplayedTwice();
+        failedWriteIsNotReplayedTwice();
+        largeJournalIsReplayedInChunks();
+        compactedJournalRebuildsTheZoo();
+        System.out.println("ZooJournalTest OK");
+    }
+
+    // the batch is on disk when the force fails, so writing the retry after it would replay the batch twice
+    private static void failedForceIsNotReplayedTwice() throws IOException {
+        Path path = Files.createTempFile("journal", ".zoo");
+        FailingChannel channel = new FailingChannel(path);
+        Zoo zoo = Zoo.openJournal(path, channel);
+        zoo.setEntranceFee(10, 0);
+        payTenPounds(zoo);
+        channel.failNextForce = true;
+        try {
+            payTenPounds(zoo);
+            throw new AssertionError("the failed force was not reported");
+        } catch (UncheckedIOException e) {
+            // expected, the payment is written again with the next one
+        }
+        payTenPounds(zoo);
+        zoo.closeJournal();
+        checkEquals(3, zoo.getCashSupply().getNrNotes_10pounds(), "payments made");
+        checkEquals(3, Zoo.openJournal(path).getCashSupply().getNrNotes_10pounds(), "payments replayed after a failed force");
+        Files.delete(path);
+    }
+
+    // only part of the batch reaches the disk, which must not hide the records written after it
+    private static void failedWriteIsNotReplayedTwice() throws IOException {
+        Path path = Files.createTempFile("journal", ".zoo");
+        FailingChannel channel = new FailingChannel(path);
+        Zoo zoo = Zoo.openJournal(path, channel);
+        zoo.setEntranceFee(10, 0);
+        payTenPounds(zoo);
+        channel.failNextWrite = true;
+        try {
+            payTenPounds(zoo);
+            throw new AssertionError("the failed write was not reported");
+        } catch (UncheckedIOException e) {
+            // expected, the payment is written again with the next one
+        }
+        payTenPounds(zoo);
+        payTenPounds(zoo);
+        zoo.closeJournal();
+        checkEquals(4, Zoo.openJournal(path).getCashSupply().getNrNotes_10pounds(), "payments replayed after a failed write");
+        Files.delete(path);
+    }
+
+    // the journal is many times the read buffer, and one record is larger than it
+    private static void largeJournalIsReplayedInChunks() throws IOException {
+        Path path = Files.createTempFile("journal", ".zoo");
+        Zoo zoo = Zoo.openJournal(path);
+        zoo.setEntranceFee(10, 0);
+        int areaId = zoo.addArea(new Enclosure(2));
+        String longNickname = "Leo".repeat(100_000);
+        zoo.addAnimal(areaId, new Lion(longNickname));
+        for (int paymentCounter = 0; paymentCounter < 50_000; paymentCounter++) {
+            payTenPounds(zoo);
+        }
+        zoo.closeJournal();
+        check(Files.size(path) > 1 << 20, "the journal is larger than the read buffer");
+        Zoo replayedZoo = Zoo.openJournal(path);
+        checkEquals(50_000, replayedZoo.getCashSupply().getNrNotes_10pounds(), "payments replayed from a large journal");
+        checkEquals(1, replayedZoo.findAnimals(longNickname).size(), "animals replayed with a long nickname");
+        replayedZoo.closeJournal();
+        Files.delete(path);
+    }
+
+    private static void compactedJournalRebuildsTheZoo() throws IOException {
+        Path path = Files.createTempFile("journal", ".zoo");
+        Zoo zoo = Zoo.openJournal(path);
+        zoo.setEntranceFee(10, 0);
+        int firstAreaId = zoo.addArea(new Enclosure(3));
+        int removedAreaId = zoo.addArea(new Enclosure(3));
+        int lastAreaId = zoo.addArea(new Enclosure(3));
+        zoo.connectAreas(0, firstAreaId);
+        zoo.connectAreas(firstAreaId, lastAreaId);
+        zoo.connectAreas(lastAreaId, 0);
+        zoo.removeArea(removedAreaId);
+        zoo.addAnimal(lastAreaId, new Lion("Leo"));
+        for (int paymentCounter = 0; paymentCounter < 1000; paymentCounter++) {
+            payTenPounds(zoo);
+        }
+        long lengthBefore = Files.size(path);
+        zoo.compactJournal();
+        check(Files.size(path) < lengthBefore / 10, "the compacted journal is smaller");
+        payTenPounds(zoo);
+        zoo.closeJournal();
+        Zoo replayedZoo = Zoo.openJournal(path);
+        checkEquals(1001, replayedZoo.getCashSupply().getNrNotes_10pounds(), "payments replayed after compacting");
+        check(replayedZoo.getArea(removedAreaId) == null, "the removed area stays removed");
+        checkEquals(lastAreaId, replayedZoo.findAnimals("Leo").get(0).getAreaId(), "the animal keeps its habitat");
+        check(replayedZoo.isPathAllowed(new ArrayList<>(List.of(0, firstAreaId, lastAreaId, 0))), "the connections are kept");
+        replayedZoo.closeJournal();
+        Files.delete(path);
+    }
+
+    private static void payTenPounds(Zoo zoo) {
+        CashCount cashInserted = new CashCount();
+        cashInserted.setNrNotes_10pounds(1);
+        zoo.payEntranceFee(cashInserted);
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+    private static void checkEquals(long expected, long actual, String description) {
+        if (expected != actual)
+        {
+            throw new AssertionError(description + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    /** a file channel that can be told to fail its next write (after writing half of it) or its next force */
+    private static class FailingChannel extends FileChannel {
+
+        private final FileChannel file;
+        boolean failNextWrite;
+        boolean failNextForce;
+
+        FailingChannel(Path path) throws IOException {
+            file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            if (failNextWrite)
+            {
+                failNextWrite = false;
+                ByteBuffer firstHalf = source.duplicate();
+                firstHalf.limit(source.position() + source.remaining() / 2);
+                file.write(firstHalf, position);
+                throw new IOException("Injected write failure");
+            }
+            return file.write(source, position);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failNextForce)
+            {
+                failNextForce = false;
+                throw new IOException("Injected force failure");
+            }
+            file.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            return file.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+            return file.read(destinations, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            return file.write(source);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            return file.write(sources, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return file.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            file.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return file.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            file.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return file.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            return file.transferFrom(source, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException {
+            return file.read(destination, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return file.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return file.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return file.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            file.close();
+        }
+
+    }
+
+}
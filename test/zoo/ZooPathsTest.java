@@ -0,0 +1,105 @@
+package zoo;
+
+import animals.Lion;
+import areas.Enclosure;
+import areas.PicnicArea;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/** this class checks that the batch path methods and the streamed visit give the same answers as checking and visiting one path at a time */
+public class ZooPathsTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        Zoo zoo = new Zoo();
+        for (int areaCounter = 0; areaCounter < 200; areaCounter++) {
+            int areaId = zoo.addArea(areaCounter % 2 == 0 ? new Enclosure(5) : new PicnicArea());
+            if (areaCounter % 2 == 0)
+            {
+                zoo.addAnimal(areaId, new Lion("Lion" + areaId));
+            }
+        }
+        for (int connectionCounter = 0; connectionCounter < 1000; connectionCounter++) {
+            zoo.connectAreas(random.nextInt(201), random.nextInt(201));
+        }
+        int[][] paths = new int[5000][];
+        for (int pathCounter = 0; pathCounter < paths.length; pathCounter++) {
+            // half of the paths follow the connections, the others are random and mostly not allowed
+            paths[pathCounter] = pathCounter % 2 == 0 ? randomWalk(zoo, random) : randomPath(random);
+        }
+        paths[0] = new int[0];
+        boolean[] pathsAllowed = zoo.validatePaths(paths);
+        ArrayList<ArrayList<String>> animalsSeenPerPath = zoo.visitAll(paths);
+        check(animalsSeenPerPath.size() == paths.length, "visitAll returns one result per path");
+        int nrAllowed = 0;
+        int nrPartlyStreamed = 0;
+        for (int pathCounter = 0; pathCounter < paths.length; pathCounter++) {
+            ArrayList<Integer> path = new ArrayList<>();
+            for (int areaId : paths[pathCounter]) {
+                path.add(areaId);
+            }
+            boolean allowed = zoo.isPathAllowed(path);
+            check(pathsAllowed[pathCounter] == allowed, "validatePaths agrees with isPathAllowed for path " + pathCounter);
+            check(Objects.equals(animalsSeenPerPath.get(pathCounter), zoo.visit(path)), "visitAll agrees with visit for path " + pathCounter);
+            // a streamed visit stops before the first step that is not allowed,
+            // so it hands over exactly the animals a visit of the path up to that step sees
+            ArrayList<String> animalsStreamed = new ArrayList<>();
+            boolean streamedAllowed = zoo.visitStream(Arrays.stream(paths[pathCounter]).iterator(), animalsStreamed::add);
+            check(streamedAllowed == allowed, "visitStream agrees with isPathAllowed for path " + pathCounter);
+            ArrayList<Integer> allowedPart = allowedPart(zoo, path);
+            ArrayList<String> animalsExpected = allowedPart.isEmpty() ? new ArrayList<>() : zoo.visit(allowedPart);
+            check(animalsStreamed.equals(animalsExpected), "visitStream hands over the animals of the allowed part of path " + pathCounter);
+            nrAllowed += allowed ? 1 : 0;
+            nrPartlyStreamed += !allowed && !animalsStreamed.isEmpty() ? 1 : 0;
+        }
+        check(nrAllowed > 1000 && nrAllowed < paths.length, "both allowed and refused paths were checked");
+        check(nrPartlyStreamed > 100, "refused paths that saw animals before the refused step were streamed");
+        System.out.println("ZooPathsTest OK");
+    }
+
+    private static int[] randomWalk(Zoo zoo, Random random) {
+        int[] path = new int[1 + random.nextInt(10)];
+        for (int stepCounter = 1; stepCounter < path.length; stepCounter++) {
+            int nrConnections = zoo.getAreaConnections().getNrConnections(path[stepCounter - 1]);
+            if (nrConnections == 0)
+            {
+                return Arrays.copyOf(path, stepCounter);
+            }
+            path[stepCounter] = zoo.getAreaConnections().getConnections(path[stepCounter - 1])[random.nextInt(nrConnections)];
+        }
+        return path;
+    }
+
+    // the path up to the first step that is not allowed
+    private static ArrayList<Integer> allowedPart(Zoo zoo, ArrayList<Integer> path) {
+        ArrayList<Integer> allowedPart = new ArrayList<>();
+        for (int areaId : path) {
+            allowedPart.add(areaId);
+            if (!zoo.isPathAllowed(allowedPart))
+            {
+                allowedPart.remove(allowedPart.size() - 1);
+                break;
+            }
+        }
+        return allowedPart;
+    }
+
+    private static int[] randomPath(Random random) {
+        int[] path = new int[1 + random.nextInt(5)];
+        for (int stepCounter = 0; stepCounter < path.length; stepCounter++) {
+            path[stepCounter] = random.nextInt(201);
+        }
+        return path;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package zoo;
+
+import areas.PicnicArea;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/** this class changes a zoo at random between rounds of isReachable queries, so the index is rebuilt many times,
+ * and checks every answer against a plain breadth-first search of a simple model of the connections
+ */
+public class ZooReachabilityTest {
+
+    private static final int NR_ROUNDS = 300;
+    private static final int NR_QUERIES = 500;
+
+    public static void main(String[] args) {
+        Random random = new Random(11);
+        Zoo zoo = new Zoo();
+        // the model: the areas each area leads to, for every area that exists
+        HashMap<Integer, HashSet<Integer>> outgoing = new HashMap<>();
+        outgoing.put(0, new HashSet<>());
+        for (int areaCounter = 0; areaCounter < 300; areaCounter++) {
+            outgoing.put(zoo.addArea(new PicnicArea()), new HashSet<>());
+        }
+        int highestAreaId = 300;
+        int nrReachable = 0;
+        int nrNotReachable = 0;
+        for (int roundCounter = 0; roundCounter < NR_ROUNDS; roundCounter++) {
+            // a few connections are added every round, and now and then an area is added or removed,
+            // which makes the index stale, or adds an area it does not know about yet
+            for (int connectionCounter = 0; connectionCounter < 3; connectionCounter++) {
+                int fromAreaId = random.nextInt(highestAreaId + 1);
+                int toAreaId = random.nextInt(highestAreaId + 1);
+                if (outgoing.containsKey(fromAreaId) && outgoing.containsKey(toAreaId))
+                {
+                    zoo.connectAreas(fromAreaId, toAreaId);
+                    outgoing.get(fromAreaId).add(toAreaId);
+                }
+            }
+            if (roundCounter % 5 == 0)
+            {
+                int areaId = 1 + random.nextInt(highestAreaId);
+                zoo.removeArea(areaId);
+                if (outgoing.remove(areaId) != null)
+                {
+                    for (HashSet<Integer> toAreaIds : outgoing.values()) {
+                        toAreaIds.remove(areaId);
+                    }
+                }
+            }
+            if (roundCounter % 7 == 0)
+            {
+                highestAreaId = zoo.addArea(new PicnicArea());
+                outgoing.put(highestAreaId, new HashSet<>());
+            }
+            // the areas reached from every area queried, searched once per round
+            HashMap<Integer, HashSet<Integer>> reachedAreaIds = new HashMap<>();
+            for (int queryCounter = 0; queryCounter < NR_QUERIES; queryCounter++) {
+                int fromAreaId = random.nextInt(highestAreaId + 1);
+                int toAreaId = random.nextInt(highestAreaId + 1);
+                boolean expected = outgoing.containsKey(fromAreaId) && outgoing.containsKey(toAreaId)
+                        && reachedAreaIds.computeIfAbsent(fromAreaId, areaId -> search(outgoing, areaId)).contains(toAreaId);
+                check(zoo.isReachable(fromAreaId, toAreaId) == expected,
+                        "isReachable agrees with the model from " + fromAreaId + " to " + toAreaId + " in round " + roundCounter);
+                nrReachable += expected ? 1 : 0;
+                nrNotReachable += expected ? 0 : 1;
+            }
+        }
+        // the connections grow from none to several per area, so both answers must come up often
+        check(nrReachable > NR_ROUNDS * NR_QUERIES / 10 && nrNotReachable > NR_ROUNDS * NR_QUERIES / 10, "both answers were checked");
+        System.out.println("ZooReachabilityTest OK");
+    }
+
+    // a plain breadth-first search, every area reaches itself
+    private static HashSet<Integer> search(HashMap<Integer, HashSet<Integer>> outgoing, int fromAreaId) {
+        HashSet<Integer> reachedAreaIds = new HashSet<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        reachedAreaIds.add(fromAreaId);
+        queue.add(fromAreaId);
+        while (!queue.isEmpty()) {
+            for (int toAreaId : outgoing.get(queue.poll())) {
+                if (reachedAreaIds.add(toAreaId))
+                {
+                    queue.add(toAreaId);
+                }
+            }
+        }
+        return reachedAreaIds;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}
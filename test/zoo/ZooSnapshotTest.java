@@ -0,0 +1,193 @@
+package zoo;
+
+import animals.Animal;
+import animals.Gazelle;
+import animals.Lion;
+import animals.Parrot;
+import animals.Seal;
+import animals.Shark;
+import animals.Zebra;
+import areas.Aquarium;
+import areas.Cage;
+import areas.Enclosure;
+import areas.Habitats;
+import areas.IArea;
+import areas.PicnicArea;
+import dataStructures.CashCount;
+import dataStructures.ICashCount;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/** this class saves a zoo to a snapshot and loads it back, and checks that damaged snapshots,
+ * and snapshots holding inhabitants their habitat would not admit, are reported as IOExceptions
+ */
+public class ZooSnapshotTest {
+
+    public static void main(String[] args) throws IOException {
+        Zoo zoo = newZoo();
+        Path path = Files.createTempFile("snapshot", ".zoo");
+        zoo.saveSnapshot(path);
+        checkSameZoo(zoo, Zoo.loadSnapshot(path));
+        byte[] snapshot = Files.readAllBytes(path);
+        cutSnapshotsAreReported(path, snapshot);
+        damagedSnapshotsAreReported(path, snapshot);
+        inhabitantsThatWouldNotBeAdmittedAreReported(path);
+        Files.delete(path);
+        System.out.println("ZooSnapshotTest OK");
+    }
+
+    private static Zoo newZoo() {
+        Random random = new Random(11);
+        Zoo zoo = new Zoo();
+        zoo.setEntranceFee(17, 50);
+        CashCount cash = new CashCount();
+        cash.setNrNotes_20pounds(3);
+        cash.setNrNotes_5pounds(7);
+        cash.setNrCoins_50p(11);
+        cash.setNrCoins_10p(13);
+        zoo.setCashSupply(cash);
+        for (int areaCounter = 0; areaCounter < 60; areaCounter++) {
+            switch (areaCounter % 4) {
+                case 0:
+                    zoo.addArea(new Enclosure(5));
+                    break;
+                case 1:
+                    zoo.addArea(new Cage(3));
+                    break;
+                case 2:
+                    zoo.addArea(new Aquarium(4));
+                    break;
+                default:
+                    zoo.addArea(new PicnicArea());
+            }
+        }
+        for (int connectionCounter = 0; connectionCounter < 300; connectionCounter++) {
+            zoo.connectAreas(random.nextInt(61), random.nextInt(61));
+        }
+        for (int areaId = 1; areaId <= 60; areaId++) {
+            zoo.addAnimal(areaId, new Lion("Lion" + areaId));
+            zoo.addAnimal(areaId, new Gazelle("Gazelle" + areaId));
+            zoo.addAnimal(areaId, new Parrot("Parrot" + areaId));
+            zoo.addAnimal(areaId, new Shark("Shark" + areaId));
+            zoo.addAnimal(areaId, new Seal("Seal é" + areaId));
+        }
+        // removed areas keep their IDs empty, and the last ID is a removed area
+        zoo.removeArea(10);
+        zoo.removeArea(60);
+        return zoo;
+    }
+
+    private static void checkSameZoo(Zoo expected, Zoo actual) {
+        check(expected.getHighestAreaId() == actual.getHighestAreaId(), "same highest area ID");
+        check(expected.getEntranceFee() == actual.getEntranceFee(), "same entrance fee");
+        check(Arrays.equals(cashCounts(expected.getCashSupply()), cashCounts(actual.getCashSupply())), "same cash");
+        for (int areaId = 0; areaId <= expected.getHighestAreaId(); areaId++) {
+            IArea expectedArea = expected.getArea(areaId);
+            IArea actualArea = actual.getArea(areaId);
+            check(expectedArea == null ? actualArea == null : actualArea != null && expectedArea.getClass() == actualArea.getClass(),
+                    "same type of area " + areaId);
+            int nrConnections = expected.getAreaConnections().getNrConnections(areaId);
+            check(nrConnections == actual.getAreaConnections().getNrConnections(areaId)
+                    && Arrays.equals(expected.getAreaConnections().getConnections(areaId), 0, nrConnections,
+                    actual.getAreaConnections().getConnections(areaId), 0, nrConnections), "same connections of area " + areaId + ", in the same order");
+            if (expectedArea instanceof Habitats)
+            {
+                Habitats expectedHabitat = (Habitats) expectedArea;
+                Habitats actualHabitat = (Habitats) actualArea;
+                check(expectedHabitat.getCapacity() == actualHabitat.getCapacity(), "same capacity of area " + areaId);
+                check(Arrays.equals(expectedHabitat.getNicknames(), actualHabitat.getNicknames()), "same inhabitants of area " + areaId);
+                for (int inhabitantCounter = 0; inhabitantCounter < expectedHabitat.getNrInhabitants(); inhabitantCounter++) {
+                    Animal expectedAnimal = expectedHabitat.getInhabitants().get(inhabitantCounter);
+                    check(expectedAnimal.getClass() == actualHabitat.getInhabitants().get(inhabitantCounter).getClass(), "same species in area " + areaId);
+                }
+            }
+        }
+        check(expected.findUnreachableAreas().equals(actual.findUnreachableAreas()), "same unreachable areas");
+        check(actual.findAnimals("Seal é1").size() == expected.findAnimals("Seal é1").size(), "the nicknames are indexed again");
+    }
+
+    private static int[] cashCounts(ICashCount cash) {
+        return new int[] { cash.getNrNotes_20pounds(), cash.getNrNotes_10pounds(), cash.getNrNotes_5pounds(), cash.getNrCoins_2pounds(),
+                cash.getNrCoins_1pound(), cash.getNrCoins_50p(), cash.getNrCoins_20p(), cash.getNrCoins_10p() };
+    }
+
+    // a snapshot cut short anywhere must be reported, and never fail with another exception
+    private static void cutSnapshotsAreReported(Path path, byte[] snapshot) throws IOException {
+        for (int length = 0; length < snapshot.length; length++) {
+            Files.write(path, Arrays.copyOf(snapshot, length));
+            try {
+                Zoo.loadSnapshot(path);
+                throw new AssertionError("a snapshot cut to " + length + " bytes was loaded");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+
+    // a damaged byte is either reported, or changes something that still makes a valid zoo (such as a nickname)
+    private static void damagedSnapshotsAreReported(Path path, byte[] snapshot) throws IOException {
+        Random random = new Random(5);
+        int nrReported = 0;
+        for (int damageCounter = 0; damageCounter < 2000; damageCounter++) {
+            byte[] damagedSnapshot = snapshot.clone();
+            int position = 8 + random.nextInt(snapshot.length - 8);
+            damagedSnapshot[position] = (byte) random.nextInt(256);
+            Files.write(path, damagedSnapshot);
+            try {
+                Zoo.loadSnapshot(path);
+            } catch (IOException e) {
+                nrReported++;
+            }
+        }
+        check(nrReported > 0, "damaged snapshots were reported");
+    }
+
+    // a snapshot whose inhabitants were changed into animals the habitat would not admit must be reported
+    private static void inhabitantsThatWouldNotBeAdmittedAreReported(Path path) throws IOException {
+        Zoo zoo = new Zoo();
+        int areaId = zoo.addArea(new Enclosure(2));
+        zoo.addAnimal(areaId, new Zebra("Stripes"));
+        zoo.addAnimal(areaId, new Gazelle("Hooves"));
+        zoo.saveSnapshot(path);
+        byte[] snapshot = Files.readAllBytes(path);
+        // the species code is saved just before the length of the nickname
+        int speciesPosition = indexOf(snapshot, "Hooves".getBytes(StandardCharsets.UTF_8)) - 5;
+        check(snapshot[speciesPosition] == Animal.GAZELLE, "the species code of the gazelle was found");
+        checkSameZoo(zoo, Zoo.loadSnapshot(path));
+        // a lion cannot live with a zebra, and a shark does not live in an enclosure
+        for (int species : new int[] { Animal.LION, Animal.SHARK }) {
+            byte[] changedSnapshot = snapshot.clone();
+            changedSnapshot[speciesPosition] = (byte) species;
+            Files.write(path, changedSnapshot);
+            try {
+                Zoo.loadSnapshot(path);
+                throw new AssertionError("a snapshot with an inhabitant of species " + species + " that would not be admitted was loaded");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int position = 0; position + part.length <= bytes.length; position++) {
+            if (Arrays.equals(bytes, position, position + part.length, part, 0, part.length))
+            {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+        {
+            throw new AssertionError(description);
+        }
+    }
+
+}